@@ -0,0 +1,25 @@
+package study.KYHquerydsl.projection;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * DTO 에 붙이면 같은 패키지에 `<Dto>Projection` (Querydsl {@code FactoryExpression}) 을 생성한다.
+ * 생성자 인자는 DTO 의 필드 선언 순서를 따르고, 행마다 기본 생성자 + setter 를 직접 호출한다.
+ * (`Projections.bean/fields/constructor` 처럼 행마다 리플렉션을 거치지 않는다.)
+ *
+ * <pre>
+ * queryFactory
+ *         .select(new UserDtoProjection(member.username, member.age))  // 위치로 매핑하므로 `.as("name")` 이 필요 없다.
+ *         .from(member)
+ *         .fetch();
+ * </pre>
+ *
+ * 조건: 기본 생성자, static/transient 가 아닌 필드마다 `setXxx` (lombok `@Data`/`@Setter` 로 충분하다.)
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GenerateProjection {
+}
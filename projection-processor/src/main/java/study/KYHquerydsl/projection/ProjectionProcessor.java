@@ -0,0 +1,166 @@
+package study.KYHquerydsl.projection;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * {@link GenerateProjection} 이 붙은 DTO 마다 `<Dto>Projection extends FactoryExpressionBase<Dto>` 를 생성한다.
+ * 같은 이름의 타입이 이미 있으면 (compileQuerydsl 에서 먼저 생성된 경우 등) 건너뛴다.
+ */
+@SupportedAnnotationTypes("study.KYHquerydsl.projection.GenerateProjection")
+public class ProjectionProcessor extends AbstractProcessor {
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(GenerateProjection.class)) {
+            if (element.getKind() != ElementKind.CLASS || element.getModifiers().contains(Modifier.ABSTRACT)) {
+                error(element, "@GenerateProjection 은 구체 클래스에만 붙일 수 있습니다.");
+                continue;
+            }
+            TypeElement type = (TypeElement) element;
+            if (!type.getTypeParameters().isEmpty()) {
+                error(type, "@GenerateProjection 은 제네릭 클래스를 지원하지 않습니다.");
+                continue;
+            }
+            if (type.getNestingKind().isNested() && !type.getModifiers().contains(Modifier.STATIC)) {
+                error(type, "@GenerateProjection 은 내부 클래스(inner class)를 지원하지 않습니다. static 으로 선언하세요.");
+                continue;
+            }
+
+            String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+            String simpleName = type.getSimpleName() + "Projection";
+            String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+            if (processingEnv.getElementUtils().getTypeElement(qualifiedName) != null) {
+                continue;
+            }
+
+            List<VariableElement> fields = ElementFilter.fieldsIn(type.getEnclosedElements()).stream()
+                    .filter(f -> !f.getModifiers().contains(Modifier.STATIC))
+                    .filter(f -> !f.getModifiers().contains(Modifier.TRANSIENT))
+                    .collect(Collectors.toList());
+            if (fields.isEmpty()) {
+                error(type, "@GenerateProjection 대상에 매핑할 필드가 없습니다.");
+                continue;
+            }
+
+            try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+                writer.write(render(packageName, simpleName, type.getQualifiedName().toString(), fields));
+            } catch (IOException e) {
+                error(type, "Projection 생성 실패: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private String render(String packageName, String simpleName, String dtoName, List<VariableElement> fields) {
+        StringBuilder sb = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            sb.append("package ").append(packageName).append(";\n\n");
+        }
+        sb.append("import com.querydsl.core.types.Expression;\n");
+        sb.append("import com.querydsl.core.types.FactoryExpressionBase;\n");
+        sb.append("import com.querydsl.core.types.Visitor;\n\n");
+        sb.append("import java.util.List;\n\n");
+        sb.append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n");
+        sb.append("public class ").append(simpleName)
+                .append(" extends FactoryExpressionBase<").append(dtoName).append("> {\n\n");
+        sb.append("    private static final long serialVersionUID = 1L;\n\n");
+        sb.append("    private final List<Expression<?>> args;\n\n");
+
+        // 생성자: 필드 순서대로 Expression 을 받는다. (primitive 는 boxing 타입)
+        sb.append("    public ").append(simpleName).append("(");
+        for (int i = 0; i < fields.size(); i++) {
+            VariableElement field = fields.get(i);
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append("Expression<").append(boxedName(field.asType())).append("> ").append(field.getSimpleName());
+        }
+        sb.append(") {\n");
+        sb.append("        super(").append(dtoName).append(".class);\n");
+        sb.append("        this.args = List.of(");
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(fields.get(i).getSimpleName());
+        }
+        sb.append(");\n");
+        sb.append("    }\n\n");
+
+        sb.append("    @Override\n");
+        sb.append("    public List<Expression<?>> getArgs() {\n");
+        sb.append("        return args;\n");
+        sb.append("    }\n\n");
+
+        // 행 매핑: 기본 생성자 + setter 직접 호출. primitive 필드는 null 이면 기본값으로 둔다.
+        sb.append("    @Override\n");
+        sb.append("    @SuppressWarnings(\"unchecked\")\n");
+        sb.append("    public ").append(dtoName).append(" newInstance(Object... row) {\n");
+        sb.append("        ").append(dtoName).append(" dto = new ").append(dtoName).append("();\n");
+        for (int i = 0; i < fields.size(); i++) {
+            VariableElement field = fields.get(i);
+            TypeMirror fieldType = field.asType();
+            String set = "dto." + setterName(field) + "((" + boxedName(fieldType) + ") row[" + i + "]);\n";
+            if (fieldType.getKind().isPrimitive()) {
+                sb.append("        if (row[").append(i).append("] != null) {\n");
+                sb.append("            ").append(set);
+                sb.append("        }\n");
+            } else {
+                sb.append("        ").append(set);
+            }
+        }
+        sb.append("        return dto;\n");
+        sb.append("    }\n\n");
+
+        sb.append("    @Override\n");
+        sb.append("    public <R, C> R accept(Visitor<R, C> v, C context) {\n");
+        sb.append("        return v.visit(this, context);\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private String boxedName(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+        return type.toString();
+    }
+
+    // lombok 과 같은 규칙: boolean 필드 `isActive` 의 setter 는 `setActive`
+    private static String setterName(VariableElement field) {
+        String name = field.getSimpleName().toString();
+        if (field.asType().getKind() == TypeKind.BOOLEAN
+                && name.length() > 2 && name.startsWith("is") && Character.isUpperCase(name.charAt(2))) {
+            name = name.substring(2);
+        }
+        return "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,53 @@
+package study.KYHquerydsl.benchmark;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.KYHquerydsl.KyhQuerydslApplication;
+import study.KYHquerydsl.datagen.DataGenProperties;
+import study.KYHquerydsl.datagen.LoadReport;
+import study.KYHquerydsl.datagen.MemberDataGenerator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 벤치마크용 애플리케이션 컨텍스트. 임베디드(in-memory) H2 로 띄우고, 측정에 방해되는 SQL 로깅은 끈다.
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    static ConfigurableApplicationContext start(String dbName, String... extraArgs) {
+        List<String> args = new ArrayList<>(Arrays.asList(
+                "--spring.profiles.active=bench",
+                "--spring.main.web-application-type=none",
+                "--spring.datasource.url=jdbc:h2:mem:" + dbName + ";DB_CLOSE_DELAY=-1",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--spring.jpa.properties.hibernate.use_sql_comments=false",
+                "--decorator.datasource.p6spy.enable-logging=false",
+                "--logging.level.org.hibernate.SQL=warn",
+                "--logging.level.root=warn"
+        ));
+        args.addAll(Arrays.asList(extraArgs));
+        return new SpringApplicationBuilder(KyhQuerydslApplication.class)
+                .run(args.toArray(new String[0]));
+    }
+
+    // teams 개의 팀에 members 명을 넣는다. (username = "member" + i, team name = "team" + i, age 0~99 균등분포)
+    static LoadReport seed(ConfigurableApplicationContext context, long members, int teams) {
+        DataGenProperties props = new DataGenProperties();
+        props.setMembers(members);
+        props.setTeams(teams);
+        return context.getBean(MemberDataGenerator.class).generate(props);
+    }
+
+    static TransactionTemplate readOnlyTx(ConfigurableApplicationContext context) {
+        TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        tx.setReadOnly(true);
+        return tx;
+    }
+}
@@ -0,0 +1,75 @@
+package study.KYHquerydsl.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import study.KYHquerydsl.dto.MemberTeamDto;
+import study.KYHquerydsl.dto.MemberTeamDtoSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * `List<MemberTeamDto>` 10k 행의 인코딩/디코딩 비용: JSON vs CBOR vs Smile.
+ * 응답과 같은 설정(MemberTeamDtoSerializer)으로 만든 ObjectMapper 로 DB 없이 측정한다. 크기(bytes)는 @Setup 에서 한 번 출력한다.
+ */
+@State(Scope.Benchmark)
+public class BinaryFormatBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    @Param({"json", "cbor", "smile"})
+    String format;
+
+    ObjectMapper mapper;
+    JavaType listType;
+    List<MemberTeamDto> rows;
+    byte[] encoded;
+
+    @Setup
+    public void setUp() throws Exception {
+        mapper = Jackson2ObjectMapperBuilder.json()
+                .factory(factory(format))
+                .serializerByType(MemberTeamDto.class, new MemberTeamDtoSerializer())
+                .build();
+        listType = mapper.getTypeFactory().constructCollectionType(List.class, MemberTeamDto.class);
+
+        rows = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new MemberTeamDto((long) i, "member" + i, i % 100, (long) (i % 2), i % 2 == 0 ? "teamA" : "teamB"));
+        }
+        encoded = mapper.writeValueAsBytes(rows);
+        System.out.printf("%n[%s] %d rows = %d bytes%n", format, ROWS, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return mapper.writeValueAsBytes(rows);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> decode() throws Exception {
+        return mapper.readValue(encoded, listType);
+    }
+
+    private static JsonFactory factory(String format) {
+        switch (format) {
+            case "json":
+                return new JsonFactory();
+            case "cbor":
+                return new CBORFactory();
+            case "smile":
+                return new SmileFactory();
+            default:
+                throw new IllegalArgumentException("unknown format: " + format);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package study.KYHquerydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.KYHquerydsl.dto.MemberSearchCondition;
+import study.KYHquerydsl.dto.MemberTeamDto;
+import study.KYHquerydsl.repository.MemberRepository;
+
+/**
+ * offset 페이징 컨텐츠 쿼리: 조인된 행 전체를 offset 만큼 읽고 버리기 vs id 만 페이징한 뒤 그 id 들만 조인 (deferred join)
+ * 페이지 1, 100, 10000 (size 20). count 는 캐시에서 나오도록 두고(첫 호출 이후) 컨텐츠 쿼리 비용만 비교한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+public class DeferredJoinBenchmark {
+
+    @Param({"false", "true"})
+    boolean deferredJoin;
+
+    @Param({"0", "99", "9999"})
+    int page;
+
+    @Param({"250000"})
+    int datasetSize;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    TransactionTemplate readOnlyTx;
+    MemberSearchCondition condition = MemberSearchBenchmark.condition("broad");
+    PageRequest pageRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start("deferred" + deferredJoin + page,
+                "--member.search.deferred-join=" + deferredJoin);
+        BenchmarkSupport.seed(context, datasetSize, datasetSize / 100);
+        memberRepository = context.getBean(MemberRepository.class);
+        readOnlyTx = BenchmarkSupport.readOnlyTx(context);
+        pageRequest = PageRequest.of(page, 20);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageComplex() {
+        return readOnlyTx.execute(status -> memberRepository.searchPageComplex(condition, pageRequest));
+    }
+}
@@ -0,0 +1,66 @@
+package study.KYHquerydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.KYHquerydsl.entity.Member;
+import study.KYHquerydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+
+/**
+ * `InitMember`, `QuerydslBasicTest.before` 와 같은 em.persist 루프의 insert 처리량.
+ * allocationSize=1 은 변경 전(insert 마다 시퀀스 조회)과 같고, 50 은 pooled-lo 블록 할당이다.
+ * 측정 결과는 insert 1건당 수치다. (트랜잭션은 flush 후 롤백해서 테이블 크기를 일정하게 유지)
+ */
+@State(Scope.Benchmark)
+public class MemberInsertBenchmark {
+
+    static final int MEMBERS = 1000;
+
+    @Param({"1", "50"})
+    int allocationSize;
+
+    ConfigurableApplicationContext context;
+    EntityManager em;
+    TransactionTemplate tx;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start("insert" + allocationSize,
+                "--spring.jpa.properties.kyh.id.allocation_size=" + allocationSize);
+        em = context.getBean(EntityManager.class);
+        tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MEMBERS)
+    public void persistLoop() {
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+
+            for (int i = 0; i < MEMBERS; i++) {
+                Team selectedTeam = i % 2 == 0 ? teamA : teamB;
+                em.persist(new Member("member" + i, i, selectedTeam));
+            }
+            em.flush();
+            status.setRollbackOnly();
+        });
+    }
+}
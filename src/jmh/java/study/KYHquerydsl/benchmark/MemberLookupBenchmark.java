@@ -0,0 +1,80 @@
+package study.KYHquerydsl.benchmark;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.KYHquerydsl.entity.Member;
+import study.KYHquerydsl.repository.MemberJpaRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static study.KYHquerydsl.entity.QMember.member;
+
+/**
+ * id 여러 개 조회: findById 반복 (id 마다 왕복) vs findAllByIds (2의 거듭제곱 크기 IN 쿼리).
+ * 호출마다 새 트랜잭션(영속성 컨텍스트)이라 1차 캐시 없이 DB 에서 읽는다. Member 는 2차 캐시 대상이 아니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+public class MemberLookupBenchmark {
+
+    @Param({"10", "100", "500"})
+    int idCount;
+
+    @Param({"100000"})
+    int datasetSize;
+
+    ConfigurableApplicationContext context;
+    MemberJpaRepository memberJpaRepository;
+    TransactionTemplate readOnlyTx;
+    List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start("lookup" + idCount);
+        BenchmarkSupport.seed(context, datasetSize, datasetSize / 100);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        readOnlyTx = BenchmarkSupport.readOnlyTx(context);
+
+        List<Long> allIds = readOnlyTx.execute(status -> context.getBean(JPAQueryFactory.class)
+                .select(member.id)
+                .from(member)
+                .fetch());
+        Collections.shuffle(allIds, new Random(42));
+        ids = new ArrayList<>(allIds.subList(0, idCount));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> findByIdLoop() {
+        return readOnlyTx.execute(status -> {
+            List<Member> result = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                memberJpaRepository.findById(id).ifPresent(result::add);
+            }
+            return result;
+        });
+    }
+
+    @Benchmark
+    public Map<Long, Member> findAllByIds() {
+        return readOnlyTx.execute(status -> memberJpaRepository.findAllByIds(ids));
+    }
+}
@@ -0,0 +1,104 @@
+package study.KYHquerydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.KYHquerydsl.dto.MemberSearchCondition;
+import study.KYHquerydsl.dto.MemberTeamDto;
+import study.KYHquerydsl.repository.MemberJpaRepository;
+import study.KYHquerydsl.repository.MemberRepository;
+
+import java.util.List;
+
+/**
+ * 같은 검색을 하는 네 가지 구현 비교.
+ * - searchByBuilder : BooleanBuilder
+ * - search : where 다중 파라미터
+ * - searchPageSimple : fetchResults (deprecated)
+ * - searchPageComplex : PageableExecutionUtils 로 count 생략
+ *
+ * selectivity
+ * - narrow : username 일치 (1건)
+ * - team : teamName 일치 (전체의 1/팀 수)
+ * - broad : ageGoe(10) (약 90%)
+ */
+@State(Scope.Benchmark)
+public class MemberSearchBenchmark {
+
+    @Param({"1000", "100000"})
+    int datasetSize;
+
+    @Param({"narrow", "team", "broad"})
+    String selectivity;
+
+    ConfigurableApplicationContext context;
+    MemberJpaRepository memberJpaRepository;
+    MemberRepository memberRepository;
+    TransactionTemplate readOnlyTx;
+    MemberSearchCondition condition;
+    PageRequest pageRequest = PageRequest.of(0, 20);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // count 캐시가 켜져 있으면 searchPageComplex 의 count 비용이 측정되지 않으므로 끈다.
+        context = BenchmarkSupport.start("search", "--member.count-cache.enabled=false");
+        int teams = Math.max(2, datasetSize / 100);
+        BenchmarkSupport.seed(context, datasetSize, teams);
+
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        memberRepository = context.getBean(MemberRepository.class);
+        readOnlyTx = BenchmarkSupport.readOnlyTx(context);
+        condition = condition(selectivity);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> searchByBuilder() {
+        return readOnlyTx.execute(status -> memberJpaRepository.searchByBuilder(condition));
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> search() {
+        return readOnlyTx.execute(status -> memberJpaRepository.search(condition));
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageSimple() {
+        return readOnlyTx.execute(status -> memberRepository.searchPageSimple(condition, pageRequest));
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageComplex() {
+        return readOnlyTx.execute(status -> memberRepository.searchPageComplex(condition, pageRequest));
+    }
+
+    static MemberSearchCondition condition(String selectivity) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        switch (selectivity) {
+            case "narrow":
+                condition.setUsername("member7");
+                break;
+            case "team":
+                condition.setTeamName("team1");
+                break;
+            case "broad":
+                condition.setAgeGoe(10);
+                break;
+            default:
+                throw new IllegalArgumentException("selectivity: " + selectivity);
+        }
+        return condition;
+    }
+}
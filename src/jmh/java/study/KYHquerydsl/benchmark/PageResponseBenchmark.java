@@ -0,0 +1,60 @@
+package study.KYHquerydsl.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import study.KYHquerydsl.dto.MemberTeamDto;
+import study.KYHquerydsl.dto.MemberTeamDtoSerializer;
+import study.KYHquerydsl.dto.PageResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * `/v2`, `/v3` 한 페이지의 직렬화 비용: 기존 (`PageImpl` + bean 직렬화) vs `PageResponse` + `MemberTeamDtoSerializer`.
+ * DB 없이 직렬화만 측정한다. 응답 크기(bytes)는 @Setup 에서 한 번 출력한다. (-prof gc 의 gc.alloc.rate.norm 이 페이지당 할당량)
+ */
+@State(Scope.Benchmark)
+public class PageResponseBenchmark {
+
+    @Param({"20", "100"})
+    int size;
+
+    ObjectMapper beanMapper;
+    ObjectMapper compactMapper;
+    Page<MemberTeamDto> page;
+
+    @Setup
+    public void setUp() throws Exception {
+        beanMapper = Jackson2ObjectMapperBuilder.json().build();
+        compactMapper = Jackson2ObjectMapperBuilder.json()
+                .serializerByType(MemberTeamDto.class, new MemberTeamDtoSerializer())
+                .build();
+
+        List<MemberTeamDto> content = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            content.add(new MemberTeamDto((long) i, "member" + i, i % 100, (long) (i % 2), i % 2 == 0 ? "teamA" : "teamB"));
+        }
+        page = new PageImpl<>(content, PageRequest.of(3, size), 100_000);
+
+        System.out.printf("%n[size=%d] pageImpl=%d bytes, compact=%d bytes%n", size,
+                pageImpl().length, compact().length);
+    }
+
+    @Benchmark
+    public byte[] pageImpl() throws Exception {
+        return beanMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] compact() throws Exception {
+        return compactMapper.writeValueAsBytes(PageResponse.of(page));
+    }
+}
@@ -0,0 +1,56 @@
+package study.KYHquerydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import study.KYHquerydsl.dto.MemberSearchCondition;
+import study.KYHquerydsl.dto.MemberTeamDto;
+import study.KYHquerydsl.repository.MemberRepository;
+
+/**
+ * searchPageComplex 페이지 지연시간: 컨텐츠 → count 순차 실행 vs count 동시 실행.
+ * 두 번째 페이지를 조회해서 count 쿼리가 생략되지 않게 한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+public class ParallelCountBenchmark {
+
+    @Param({"false", "true"})
+    boolean parallel;
+
+    @Param({"100000"})
+    int datasetSize;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    MemberSearchCondition condition = MemberSearchBenchmark.condition("broad");
+    PageRequest pageRequest = PageRequest.of(1, 20);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start("parallel" + parallel,
+                "--member.count-cache.enabled=false",
+                "--member.search.parallel-count.enabled=" + parallel);
+        BenchmarkSupport.seed(context, datasetSize, datasetSize / 100);
+        memberRepository = context.getBean(MemberRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageComplex() {
+        return memberRepository.searchPageComplex(condition, pageRequest);
+    }
+}
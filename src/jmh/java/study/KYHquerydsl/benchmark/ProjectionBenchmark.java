@@ -0,0 +1,65 @@
+package study.KYHquerydsl.benchmark;
+
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Projections;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import study.KYHquerydsl.dto.UserDto;
+import study.KYHquerydsl.dto.UserDtoProjection;
+
+import static study.KYHquerydsl.entity.QMember.member;
+
+/**
+ * DTO 행 매핑 비용: `Projections.bean/fields/constructor` (행마다 리플렉션) vs `@GenerateProjection` 으로 생성된 `UserDtoProjection`.
+ * DB 없이 미리 만들어 둔 Object[] 행에 `FactoryExpression.newInstance` 만 반복한다. (Querydsl 이 결과 행을 DTO 로 바꾸는 경로)
+ * 점수는 행 하나당 시간/처리량이다. (@OperationsPerInvocation)
+ */
+@State(Scope.Benchmark)
+public class ProjectionBenchmark {
+
+    private static final int ROWS = 1_000_000;
+
+    @Param({"bean", "fields", "constructor", "generated"})
+    String strategy;
+
+    Object[][] rows;
+    FactoryExpression<UserDto> projection;
+
+    @Setup
+    public void setUp() {
+        rows = new Object[ROWS][];
+        for (int i = 0; i < ROWS; i++) {
+            rows[i] = new Object[]{"member" + i, i % 100};
+        }
+        switch (strategy) {
+            case "bean":
+                projection = Projections.bean(UserDto.class, member.username.as("name"), member.age);
+                break;
+            case "fields":
+                projection = Projections.fields(UserDto.class, member.username.as("name"), member.age);
+                break;
+            case "constructor":
+                projection = Projections.constructor(UserDto.class, member.username, member.age);
+                break;
+            case "generated":
+                projection = new UserDtoProjection(member.username, member.age);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown strategy: " + strategy);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void map(Blackhole bh) {
+        FactoryExpression<UserDto> projection = this.projection;
+        for (Object[] row : rows) {
+            bh.consume(projection.newInstance(row));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package study.KYHquerydsl.benchmark;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import study.KYHquerydsl.dto.MemberSearchCondition;
+import study.KYHquerydsl.dto.QMemberTeamDto;
+import study.KYHquerydsl.repository.MemberSearchQueryTemplates;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.KYHquerydsl.entity.QMember.member;
+import static study.KYHquerydsl.entity.QTeam.team;
+
+/**
+ * 요청 한 번에 드는 JPQL 생성 비용: Querydsl 표현식 트리 생성 + 직렬화 vs 미리 만든 템플릿 조회.
+ * DB 없이 렌더링만 측정한다. (-prof gc 의 gc.alloc.rate.norm 이 요청당 할당량)
+ */
+@State(Scope.Benchmark)
+public class QueryRenderBenchmark {
+
+    @Param({"none", "team", "all"})
+    String shape;
+
+    MemberSearchCondition condition;
+    MemberSearchQueryTemplates templates = new MemberSearchQueryTemplates(true);
+
+    @Setup
+    public void setUp() {
+        condition = new MemberSearchCondition();
+        if (!shape.equals("none")) {
+            condition.setTeamName("teamB");
+        }
+        if (shape.equals("all")) {
+            condition.setUsername("member1");
+            condition.setAgeGoe(10);
+            condition.setAgeLoe(40);
+        }
+    }
+
+    @Benchmark
+    public String querydsl() {
+        return new JPAQuery<Void>()
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")
+                ))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        hasText(condition.getUsername()) ? member.username.eq(condition.getUsername()) : null,
+                        hasText(condition.getTeamName()) ? member.team.name.eq(condition.getTeamName()) : null,
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .toString();
+    }
+
+    @Benchmark
+    public String template() {
+        return templates.contentJpql(condition);
+    }
+
+    private static BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+
+    private static BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+}
@@ -4,10 +4,12 @@ import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import javax.persistence.EntityManager;
 
 @SpringBootApplication
+@EnableScheduling  // TeamStatistics.reconcile
 public class KyhQuerydslApplication {
 
 	public static void main(String[] args) {
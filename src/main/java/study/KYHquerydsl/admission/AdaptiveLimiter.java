@@ -0,0 +1,82 @@
+package study.KYHquerydsl.admission;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 동시 실행 수 제한 + 대기 큐. 상한은 AIMD 로 조정한다.
+ *  - 응답이 목표 지연시간보다 느리면 상한에 backoffRatio 를 곱한다 (multiplicative decrease)
+ *  - 빠르고, 상한의 절반 이상을 쓰고 있었으면 상한을 1 늘린다 (additive increase)
+ * 상한만큼 실행 중이면 queueDepth 개까지 queueTimeout 동안 기다리고, 그래도 자리가 없으면 거절한다.
+ */
+public class AdaptiveLimiter {
+
+    public enum Admission { IMMEDIATE, QUEUED, REJECTED }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int queueDepth;
+    private final long queueTimeoutNanos;
+    private final long targetLatencyNanos;
+    private final double backoffRatio;
+
+    private int limit;
+    private int inFlight;
+    private int queued;
+
+    public AdaptiveLimiter(AdmissionProperties.Endpoint endpoint) {
+        this.minLimit = Math.max(1, endpoint.getMinConcurrent());
+        this.maxLimit = Math.max(minLimit, endpoint.getMaxConcurrent());
+        this.queueDepth = endpoint.getQueueDepth();
+        this.queueTimeoutNanos = endpoint.getQueueTimeout().toNanos();
+        this.targetLatencyNanos = endpoint.getTargetLatency().toNanos();
+        this.backoffRatio = endpoint.getBackoffRatio();
+        this.limit = maxLimit;
+    }
+
+    public synchronized Admission acquire() throws InterruptedException {
+        if (inFlight < limit) {
+            inFlight++;
+            return Admission.IMMEDIATE;
+        }
+        if (queued >= queueDepth) {
+            return Admission.REJECTED;
+        }
+        queued++;
+        try {
+            long deadline = System.nanoTime() + queueTimeoutNanos;
+            while (inFlight >= limit) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return Admission.REJECTED;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+        } finally {
+            queued--;
+        }
+        inFlight++;
+        return Admission.QUEUED;
+    }
+
+    public synchronized void release(long latencyNanos) {
+        if (latencyNanos > targetLatencyNanos) {
+            limit = Math.max(minLimit, (int) (limit * backoffRatio));
+        } else if (inFlight * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+        inFlight--;
+        notifyAll();
+    }
+
+    public synchronized int getLimit() {
+        return limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return queued;
+    }
+}
@@ -0,0 +1,53 @@
+package study.KYHquerydsl.admission;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * `member.admission.endpoints` 에 설정된 엔드포인트마다 동시 실행 제한을 건다.
+ * 비싼 전체 조회(/v1)가 커넥션 풀을 다 차지해서 가벼운 조회까지 밀리는 것을 막는다.
+ * 메트릭: member.admission.{limit, inflight, queued} (gauge), member.admission.{rejected, queued.total} (counter)
+ */
+@Configuration
+@ConditionalOnProperty(name = "member.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlConfig implements WebMvcConfigurer {
+
+    private final AdmissionProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AdaptiveLimiter> limiters = new LinkedHashMap<>();
+
+    public AdmissionControlConfig(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        properties.getEndpoints().forEach((name, endpoint) -> limiters.put(name, bindMetrics(name, new AdaptiveLimiter(endpoint))));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        limiters.forEach((name, limiter) -> {
+            AdmissionProperties.Endpoint endpoint = properties.getEndpoints().get(name);
+            registry.addInterceptor(new AdmissionControlInterceptor(name, limiter,
+                            Math.max(1, endpoint.getRetryAfter().getSeconds()),
+                            meterRegistry.counter("member.admission.rejected", "endpoint", name),
+                            meterRegistry.counter("member.admission.queued.total", "endpoint", name)))
+                    .addPathPatterns(endpoint.getPath());
+        });
+    }
+
+    private AdaptiveLimiter bindMetrics(String name, AdaptiveLimiter limiter) {
+        Gauge.builder("member.admission.limit", limiter, AdaptiveLimiter::getLimit)
+                .tag("endpoint", name).register(meterRegistry);
+        Gauge.builder("member.admission.inflight", limiter, AdaptiveLimiter::getInFlight)
+                .tag("endpoint", name).register(meterRegistry);
+        Gauge.builder("member.admission.queued", limiter, AdaptiveLimiter::getQueued)
+                .tag("endpoint", name).register(meterRegistry);
+        return limiter;
+    }
+}
@@ -0,0 +1,65 @@
+package study.KYHquerydsl.admission;
+
+import io.micrometer.core.instrument.Counter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 엔드포인트 하나의 {@link AdaptiveLimiter} 를 컨트롤러 앞에 건다.
+ * 자리가 없으면 503 + Retry-After 로 바로 응답하고, 끝난 요청의 지연시간으로 상한을 조정한다.
+ */
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+
+    private static final String STARTED_AT = AdmissionControlInterceptor.class.getName() + ".startedAt";
+
+    private final String endpoint;
+    private final AdaptiveLimiter limiter;
+    private final String retryAfterSeconds;
+    private final Counter rejected;
+    private final Counter queued;
+
+    public AdmissionControlInterceptor(String endpoint, AdaptiveLimiter limiter, long retryAfterSeconds,
+                                       Counter rejected, Counter queued) {
+        this.endpoint = endpoint;
+        this.limiter = limiter;
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+        this.rejected = rejected;
+        this.queued = queued;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        AdaptiveLimiter.Admission admission;
+        try {
+            admission = limiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admission = AdaptiveLimiter.Admission.REJECTED;
+        }
+
+        if (admission == AdaptiveLimiter.Admission.REJECTED) {
+            rejected.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "too many concurrent requests: " + endpoint);
+        }
+        if (admission == AdaptiveLimiter.Admission.QUEUED) {
+            queued.increment();
+        }
+        request.setAttribute(STARTED_AT, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object startedAt = request.getAttribute(STARTED_AT);
+        if (startedAt != null) {
+            request.removeAttribute(STARTED_AT);
+            limiter.release(System.nanoTime() - (Long) startedAt);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package study.KYHquerydsl.admission;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * `/members` 엔드포인트별 동시 실행 제한 설정. (예: member.admission.endpoints.v1.max-concurrent=4)
+ */
+@Component
+@ConfigurationProperties(prefix = "member.admission")
+@Getter @Setter
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+    private Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+
+    @Getter @Setter
+    public static class Endpoint {
+        private String path;
+        private int maxConcurrent = 8;     // 동시 실행 상한 (지연시간이 좋으면 여기까지 늘어난다)
+        private int minConcurrent = 1;     // 지연시간이 나빠도 이 아래로는 줄이지 않는다
+        private int queueDepth = 16;       // 자리가 날 때까지 기다릴 수 있는 요청 수. 넘치면 바로 503
+        private Duration queueTimeout = Duration.ofMillis(500);
+        private Duration targetLatency = Duration.ofMillis(500);  // 이보다 오래 걸리면 상한을 줄인다
+        private double backoffRatio = 0.9;
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+}
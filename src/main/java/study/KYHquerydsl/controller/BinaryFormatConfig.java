@@ -0,0 +1,30 @@
+package study.KYHquerydsl.controller;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * `Accept: application/cbor` 또는 `application/x-jackson-smile` 이면 JSON 대신 바이너리로 응답한다. (서비스 간 호출용)
+ * 스프링 부트가 설정한 Jackson2ObjectMapperBuilder 로 만들어서 JSON 과 같은 설정/모듈(@JsonComponent 포함)을 쓴다.
+ * 컨버터는 JSON 뒤에 붙으므로 Accept 가 없거나 아무 타입이나 받으면 계속 JSON 이다.
+ */
+@Configuration
+public class BinaryFormatConfig {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.createXmlMapper(false).factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.createXmlMapper(false).factory(new SmileFactory()).build());
+    }
+}
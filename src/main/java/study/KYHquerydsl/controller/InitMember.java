@@ -3,13 +3,14 @@ package study.KYHquerydsl.controller;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.KYHquerydsl.datagen.DataGenProperties;
+import study.KYHquerydsl.datagen.MemberDataGenerator;
 import study.KYHquerydsl.entity.Member;
 import study.KYHquerydsl.entity.Team;
 
 import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
-import javax.persistence.PersistenceContext;
 
 @Profile("local")
 @Component
@@ -24,12 +25,24 @@ public class InitMember {
     }
 
     @Component
+    @RequiredArgsConstructor
     static class InitMemberService {
-        @PersistenceContext
-        private EntityManager em;
 
-        @Transactional
+        private final DataGenProperties properties;
+        private final MemberDataGenerator memberDataGenerator;
+        private final TransactionTemplate transactionTemplate;
+        private final EntityManager em;
+
+        // 기본은 강의 예제 데이터. 데이터 규모/분포는 `datagen.*` 설정으로 조절한다. 트랜잭션은 생성기가 청크 단위로 나눠서 연다.
         public void init() {
+            if (properties.isLectureData()) {
+                transactionTemplate.executeWithoutResult(status -> initLectureData());
+            } else {
+                memberDataGenerator.generate();
+            }
+        }
+
+        private void initLectureData() {
             Team teamA = new Team("teamA");
             Team teamB = new Team("teamB");
             em.persist(teamA);
@@ -1,36 +1,124 @@
 package study.KYHquerydsl.controller;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.KYHquerydsl.dto.CursorSlice;
+import study.KYHquerydsl.dto.MemberCursor;
 import study.KYHquerydsl.dto.MemberSearchCondition;
 import study.KYHquerydsl.dto.MemberTeamDto;
+import study.KYHquerydsl.dto.PageResponse;
 import study.KYHquerydsl.repository.MemberJpaRepository;
 import study.KYHquerydsl.repository.MemberRepository;
+import study.KYHquerydsl.service.MemberExportService;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
+    private static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(BinaryFormatConfig.APPLICATION_SMILE_VALUE);
+    private static final List<MediaType> EXPORT_FORMATS =
+            List.of(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_CBOR, APPLICATION_SMILE);
+
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final MemberExportService memberExportService;
+    private final MemberEtags memberEtags;
 
     @GetMapping("/v1/members")
     public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
         return memberJpaRepository.search(condition);
     }
 
+    // `/v1/members` 와 같은 검색을 List 로 모으지 않고 NDJSON 으로 스트리밍한다.
+    // Accept 가 CBOR / Smile 이면 같은 스트림을 바이너리로 (서비스 간 호출용)
+    @GetMapping(value = "/v1/members/export", produces = {MediaType.APPLICATION_NDJSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, BinaryFormatConfig.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<StreamingResponseBody> exportMembers(MemberSearchCondition condition,
+                                                               @RequestHeader HttpHeaders headers) {
+        MediaType format = exportFormat(headers.getAccept());
+        StreamingResponseBody body;
+        if (format.equals(MediaType.APPLICATION_CBOR)) {
+            body = out -> memberExportService.exportCbor(condition, out);
+        } else if (format.equals(APPLICATION_SMILE)) {
+            body = out -> memberExportService.exportSmile(condition, out);
+        } else {
+            body = out -> memberExportService.exportNdjson(condition, out);
+        }
+        return ResponseEntity.ok()
+                .contentType(format)
+                .body(body);
+    }
+
+    // 데이터가 바뀌지 않았으면 (If-None-Match == ETag) 조회하지 않고 304
+    // Page 를 그대로 반환하지 않고 PageResponse(content, page, size, total, hasNext) 로 감싸서 내보낸다.
     @GetMapping("/v2/members")
-    public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchPageSimple(condition, pageable);
+    public PageResponse<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable, ServletWebRequest webRequest) {
+        if (memberEtags.checkNotModified(webRequest, "v2")) {
+            return null;
+        }
+        return PageResponse.of(memberRepository.searchPageSimple(condition, pageable));
     }
 
+    // estimate=true 면 결과가 많을 때 total 을 추정값으로 대신한다. (응답의 estimated 로 구분)
     @GetMapping("/v3/members")
-    public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchPageComplex(condition, pageable);
+    public PageResponse<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable, ServletWebRequest webRequest,
+                                             @RequestParam(defaultValue = "false") boolean estimate) {
+        if (memberEtags.checkNotModified(webRequest, "v3")) {
+            return null;
+        }
+        if (estimate) {
+            return PageResponse.of(memberRepository.searchPageEstimated(condition, pageable));
+        }
+        return PageResponse.of(memberRepository.searchPageComplex(condition, pageable));
+    }
+
+    // 커서 기반(키셋) 페이징. 다음 페이지는 응답의 nextCursor 를 그대로 cursor 로 넘기면 된다.
+    // 정렬은 첫 페이지의 sort(기본 ID)로 정해지고 커서에 들어 있다. 다음 페이지에서 다른 sort 를 주면 400
+    // 페이지 사이에 검색조건을 바꾸는 것은 지원하지 않는다. (커서는 조건을 담지 않으므로 결과가 빠지거나 겹칠 수 있다)
+    @GetMapping("/v4/members")
+    public CursorSlice<MemberTeamDto> searchMemberV4(MemberSearchCondition condition,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(required = false) MemberCursor.SortKey sort,
+                                                    @RequestParam(defaultValue = "20") int size) {
+        MemberCursor memberCursor;
+        try {
+            memberCursor = cursor != null ? MemberCursor.decode(cursor)
+                    : MemberCursor.first(sort != null ? sort : MemberCursor.SortKey.ID);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        if (sort != null && sort != memberCursor.getSortKey()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "sort(" + sort + ")가 커서의 정렬(" + memberCursor.getSortKey() + ")과 다릅니다");
+        }
+        return memberRepository.searchByCursor(condition, memberCursor, Math.min(Math.max(size, 1), 100));
+    }
+
+    // produces 를 메서드별로 나누면 Accept: */* 일 때 매핑이 모호해지므로 한 메서드에서 고른다. (기본 NDJSON)
+    private static MediaType exportFormat(List<MediaType> accept) {
+        List<MediaType> sorted = new ArrayList<>(accept);
+        MediaType.sortBySpecificityAndQuality(sorted);
+        for (MediaType type : sorted) {
+            for (MediaType candidate : EXPORT_FORMATS) {
+                if (type.includes(candidate)) {
+                    return candidate;
+                }
+            }
+        }
+        return MediaType.APPLICATION_NDJSON;
     }
 }
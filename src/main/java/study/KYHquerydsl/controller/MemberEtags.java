@@ -0,0 +1,88 @@
+package study.KYHquerydsl.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import study.KYHquerydsl.listener.DataVersions;
+
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 회원 검색 응답의 ETag = Member/Team 데이터 버전 + 응답 포맷(JSON/CBOR/Smile). 검색조건/페이지는 URL 이 구분하므로 넣지 않는다.
+ * 같은 URL 이 Accept 에 따라 다른 표현을 내보내므로 `Vary: Accept` 를 붙인다.
+ * If-None-Match 가 현재 버전과 같으면 쿼리 없이 304 로 응답한다.
+ * 읽기/쓰기 분리(datasource.routing.enabled)를 켜면 버전은 primary 커밋 시점에 오르지만 조회는 replica 에서 한다.
+ * 마지막 변경 후 read-your-writes-window(복제 지연 허용치) 동안은 replica 가 예전 데이터를 줄 수 있으므로 ETag 를 붙이지 않는다.
+ * (붙이면 예전 데이터에 새 버전이 붙어서 다음 변경 전까지 304 로 예전 페이지를 보게 된다)
+ * 적중률: `/actuator/metrics/member.etag?tag=result:hit` / `member.etag`
+ */
+@Component
+public class MemberEtags {
+
+    // 메시지 컨버터 순서와 같다. (Accept 가 없거나 아무 타입이나 받으면 JSON)
+    private static final List<MediaType> FORMATS = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR,
+            MediaType.parseMediaType(BinaryFormatConfig.APPLICATION_SMILE_VALUE));
+
+    private final DataVersions dataVersions;
+    private final MeterRegistry registry;
+    private final long replicaLagMillis;  // 라우팅을 끄면 0
+
+    public MemberEtags(DataVersions dataVersions, MeterRegistry registry,
+                       @Value("${datasource.routing.enabled:false}") boolean routing,
+                       @Value("${datasource.routing.read-your-writes-window:1s}") Duration readYourWritesWindow) {
+        this.dataVersions = dataVersions;
+        this.registry = registry;
+        this.replicaLagMillis = routing ? readYourWritesWindow.toMillis() : 0;
+    }
+
+    // 조회 전에 호출해야 한다. (조회 후에 버전을 읽으면, 그 사이 커밋된 새 버전이 예전 데이터에 붙을 수 있다)
+    public boolean checkNotModified(ServletWebRequest request, String endpoint) {
+        HttpServletResponse response = request.getResponse();
+        if (response != null && !response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT)) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        if (replicaLagMillis > 0 && System.currentTimeMillis() - dataVersions.changedAt() < replicaLagMillis) {
+            registry.counter("member.etag",
+                    "endpoint", endpoint,
+                    "result", "skipped").increment();
+            return false;
+        }
+        String etag = "\"" + dataVersions.member() + "-" + dataVersions.team() + "-" + format(request) + "\"";
+        boolean notModified = request.checkNotModified(etag);
+        registry.counter("member.etag",
+                "endpoint", endpoint,
+                "result", notModified ? "hit" : "miss").increment();
+        return notModified;
+    }
+
+    // 컨버터가 고를 포맷을 Accept 로 미리 정한다. (q 값 순서, 처음으로 맞는 포맷)
+    static String format(ServletWebRequest request) {
+        String[] accept = request.getHeaderValues(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return FORMATS.get(0).getSubtype();
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = new ArrayList<>(MediaType.parseMediaTypes(Arrays.asList(accept)));
+        } catch (InvalidMediaTypeException e) {
+            return FORMATS.get(0).getSubtype();
+        }
+        MediaType.sortBySpecificityAndQuality(mediaTypes);
+        for (MediaType mediaType : mediaTypes) {
+            for (MediaType format : FORMATS) {
+                if (mediaType.includes(format)) {
+                    return format.getSubtype();
+                }
+            }
+        }
+        return FORMATS.get(0).getSubtype();
+    }
+}
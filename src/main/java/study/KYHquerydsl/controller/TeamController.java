@@ -0,0 +1,22 @@
+package study.KYHquerydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.KYHquerydsl.dto.TeamStatsDto;
+import study.KYHquerydsl.repository.TeamStatistics;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamStatistics teamStatistics;
+
+    // 팀별 회원 수, 나이 합/평균/최소/최대. GROUP BY 없이 미리 갱신해 둔 값을 내려준다.
+    @GetMapping("/v1/teams/stats")
+    public List<TeamStatsDto> teamStats() {
+        return teamStatistics.findAll();
+    }
+}
@@ -0,0 +1,36 @@
+package study.KYHquerydsl.datagen;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 합성 데이터 생성 설정. (예: members=1000000, teams=10000)
+ */
+@Component
+@ConfigurationProperties(prefix = "datagen")
+@Getter @Setter
+public class DataGenProperties {
+
+    public enum AgeDistribution { UNIFORM, NORMAL }
+    public enum TeamDistribution { UNIFORM, ZIPF }
+
+    private boolean lectureData;  // local 초기 데이터를 강의 예제 데이터(teamA/teamB, member0~99)로 넣는다. (InitMember)
+
+    private long members = 100;
+    private int teams = 2;
+
+    private int chunkSize = 10_000;  // 트랜잭션 하나에서 넣을 행 수
+    private int flushSize = 100;     // flush/clear 주기. hibernate.jdbc.batch_size 와 맞춘다.
+    private long seed = 42;
+
+    private AgeDistribution ageDistribution = AgeDistribution.UNIFORM;
+    private int ageMin = 0;
+    private int ageMax = 99;
+    private double ageMean = 35;     // NORMAL
+    private double ageStddev = 12;   // NORMAL
+
+    private TeamDistribution teamDistribution = TeamDistribution.UNIFORM;
+    private double zipfExponent = 1.0;  // ZIPF. 클수록 앞쪽 팀에 회원이 몰린다.
+}
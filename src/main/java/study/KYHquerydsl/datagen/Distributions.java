@@ -0,0 +1,52 @@
+package study.KYHquerydsl.datagen;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+/**
+ * 데이터 생성에 쓰는 나이/팀 분포 샘플러.
+ */
+public final class Distributions {
+
+    private Distributions() {
+    }
+
+    public static IntSupplier age(DataGenProperties props, Random random) {
+        int min = props.getAgeMin();
+        int max = props.getAgeMax();
+        if (props.getAgeDistribution() == DataGenProperties.AgeDistribution.NORMAL) {
+            double mean = props.getAgeMean();
+            double stddev = props.getAgeStddev();
+            return () -> {
+                long age = Math.round(mean + stddev * random.nextGaussian());
+                return (int) Math.max(min, Math.min(max, age));
+            };
+        }
+        return () -> min + random.nextInt(max - min + 1);
+    }
+
+    // 팀 인덱스(0 ~ teams-1) 샘플러
+    public static IntSupplier teamIndex(DataGenProperties props, Random random) {
+        int teams = props.getTeams();
+        if (props.getTeamDistribution() == DataGenProperties.TeamDistribution.ZIPF) {
+            double[] cdf = zipfCdf(teams, props.getZipfExponent());
+            double total = cdf[teams - 1];
+            return () -> {
+                int idx = Arrays.binarySearch(cdf, random.nextDouble() * total);
+                return idx >= 0 ? idx : Math.min(-idx - 1, teams - 1);
+            };
+        }
+        return () -> random.nextInt(teams);
+    }
+
+    private static double[] zipfCdf(int n, double exponent) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1, exponent);
+            cdf[k] = sum;
+        }
+        return cdf;
+    }
+}
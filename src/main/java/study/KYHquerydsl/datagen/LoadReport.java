@@ -0,0 +1,23 @@
+package study.KYHquerydsl.datagen;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class LoadReport {
+
+    private final int teams;
+    private final long members;
+    private final long elapsedMillis;
+
+    public LoadReport(int teams, long members, long elapsedMillis) {
+        this.teams = teams;
+        this.members = members;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getMembersPerSecond() {
+        return elapsedMillis == 0 ? members : members * 1000.0 / elapsedMillis;
+    }
+}
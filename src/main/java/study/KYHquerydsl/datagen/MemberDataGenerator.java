@@ -0,0 +1,89 @@
+package study.KYHquerydsl.datagen;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.KYHquerydsl.entity.Member;
+import study.KYHquerydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+/**
+ * 규모를 조절할 수 있는 합성 데이터 생성기. (local 프로파일 초기 데이터, 테스트, 벤치마크에서 사용)
+ * chunkSize 단위로 트랜잭션을 나누고, flushSize 마다 flush/clear 해서 JDBC 배치로 넣는다.
+ * 영속성 컨텍스트에 엔티티가 쌓이지 않으므로 규모가 커져도 메모리 사용량은 팀 id 배열 정도로 일정하다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MemberDataGenerator {
+
+    private final EntityManager em;
+    private final TransactionTemplate transactionTemplate;
+    private final DataGenProperties properties;
+
+    public LoadReport generate() {
+        return generate(properties);
+    }
+
+    public LoadReport generate(DataGenProperties props) {
+        long started = System.currentTimeMillis();
+        Random random = new Random(props.getSeed());
+        IntSupplier ages = Distributions.age(props, random);
+        IntSupplier teamIndexes = Distributions.teamIndex(props, random);
+
+        long[] teamIds = insertTeams(props);
+
+        long inserted = 0;
+        while (inserted < props.getMembers()) {
+            long from = inserted;
+            int size = (int) Math.min(props.getChunkSize(), props.getMembers() - from);
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < size; i++) {
+                    Member member = new Member("member" + (from + i), ages.getAsInt());
+                    // changeTeam() 은 team.members 컬렉션을 초기화하므로, 프록시만 연결한다.
+                    member.setTeam(em.getReference(Team.class, teamIds[teamIndexes.getAsInt()]));
+                    em.persist(member);
+                    if ((i + 1) % props.getFlushSize() == 0) {
+                        em.flush();
+                        em.clear();
+                    }
+                }
+                em.flush();
+                em.clear();
+            });
+            inserted += size;
+            log.info("datagen members {}/{} ({} ms)", inserted, props.getMembers(), System.currentTimeMillis() - started);
+        }
+
+        LoadReport report = new LoadReport(props.getTeams(), inserted, System.currentTimeMillis() - started);
+        log.info("datagen done: {} teams, {} members in {} ms ({} members/s)",
+                report.getTeams(), report.getMembers(), report.getElapsedMillis(), Math.round(report.getMembersPerSecond()));
+        return report;
+    }
+
+    private long[] insertTeams(DataGenProperties props) {
+        long[] teamIds = new long[props.getTeams()];
+        for (int from = 0; from < teamIds.length; from += props.getChunkSize()) {
+            int start = from;
+            int end = Math.min(from + props.getChunkSize(), teamIds.length);
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = start; i < end; i++) {
+                    Team team = new Team("team" + i);
+                    em.persist(team);
+                    teamIds[i] = team.getId();
+                    if ((i + 1) % props.getFlushSize() == 0) {
+                        em.flush();
+                        em.clear();
+                    }
+                }
+                em.flush();
+                em.clear();
+            });
+        }
+        return teamIds;
+    }
+}
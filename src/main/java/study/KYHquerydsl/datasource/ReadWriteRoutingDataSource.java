@@ -0,0 +1,241 @@
+package study.KYHquerydsl.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 읽기 전용 트랜잭션(`@Transactional(readOnly = true)`)은 replica, 나머지는 primary 로 보낸다.
+ *  - replica 커넥션을 얻지 못하면 primary 로 대신 연결하고, replicaFailureBackoff 동안은 replica 를 시도하지 않는다.
+ *  - 클라이언트가 쓴 트랜잭션(DML 을 실제로 실행한 것만)이 커밋되면, 그 클라이언트의 읽기는 readYourWritesWindow 동안 primary 로 보낸다.
+ *    커밋 시각은 응답 쿠키/헤더(`rw_last_write`, `X-Last-Write`)로 내려주고 다음 요청에서 다시 받는다. 요청 밖(배치 등)에서는 적용하지 않는다.
+ * 트랜잭션 속성이 정해진 뒤에 커넥션을 얻어야 하므로 반드시 LazyConnectionDataSourceProxy 로 감싸서 쓴다.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String LAST_WRITE_COOKIE = "rw_last_write";
+    public static final String LAST_WRITE_HEADER = "X-Last-Write";
+    static final String LAST_WRITE_ATTRIBUTE = ReadWriteRoutingDataSource.class.getName() + ".lastWrite";
+
+    enum Route { PRIMARY, REPLICA }
+
+    private final DataSource primary;
+    private final long replicaFailureBackoffNanos;
+    private final long readYourWritesWindowMillis;
+
+    private volatile long replicaDownUntil = System.nanoTime();
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica,
+                                      Duration replicaFailureBackoff, Duration readYourWritesWindow) {
+        this.primary = primary;
+        this.replicaFailureBackoffNanos = replicaFailureBackoff.toNanos();
+        this.readYourWritesWindowMillis = readYourWritesWindow.toMillis();
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Route.PRIMARY;
+        }
+        if (System.nanoTime() - replicaDownUntil < 0) {
+            return Route.PRIMARY;
+        }
+        if (readYourWritesWindowMillis > 0
+                && System.currentTimeMillis() - clientLastWrite() < readYourWritesWindowMillis) {
+            return Route.PRIMARY;
+        }
+        return Route.REPLICA;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection connect(ConnectionOpener opener) throws SQLException {
+        DataSource target = determineTargetDataSource();
+        if (target == primary) {
+            return trackWrites(opener.open(primary));
+        }
+        try {
+            return opener.open(target);
+        } catch (SQLException e) {
+            replicaFailed(e);
+            return opener.open(primary);
+        }
+    }
+
+    private void replicaFailed(SQLException e) {
+        replicaDownUntil = System.nanoTime() + replicaFailureBackoffNanos;
+        log.warn("replica connection failed, routing reads to primary for {} ms: {}",
+                replicaFailureBackoffNanos / 1_000_000, e.getMessage());
+    }
+
+    // 쓰기 트랜잭션의 primary 커넥션은 DML(insert/update/delete/merge)이 실행되는지 지켜본다.
+    private Connection trackWrites(Connection connection) {
+        if (readYourWritesWindowMillis <= 0 || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("prepare") && args != null && args[0] instanceof String) {
+                        checkDml((String) args[0]);
+                    }
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement && method.getName().equals("createStatement")) {
+                        return trackWrites((Statement) result);
+                    }
+                    return result;
+                });
+    }
+
+    private Statement trackWrites(Statement statement) {
+        return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Statement.class},
+                (proxy, method, args) -> {
+                    if ((method.getName().startsWith("execute") || method.getName().equals("addBatch"))
+                            && args != null && args[0] instanceof String) {
+                        checkDml((String) args[0]);
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private void checkDml(String sql) {
+        if (isDml(sql)) {
+            recordWriteOnCommit();
+        }
+    }
+
+    // 앞의 공백과 SQL 주석(use_sql_comments)을 건너뛰고 첫 단어로 판단한다.
+    static boolean isDml(String sql) {
+        String s = sql.stripLeading();
+        while (s.startsWith("/*")) {
+            int end = s.indexOf("*/");
+            if (end < 0) {
+                return false;
+            }
+            s = s.substring(end + 2).stripLeading();
+        }
+        String head = s.substring(0, Math.min(6, s.length())).toLowerCase(Locale.ROOT);
+        return head.startsWith("insert") || head.startsWith("update") || head.startsWith("delete") || head.startsWith("merge");
+    }
+
+    // 실제로 DML 을 실행한 트랜잭션이 커밋되면 현재 클라이언트(요청)에 커밋 시각을 남긴다.
+    private void recordWriteOnCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recordClientWrite();  // 트랜잭션 밖(auto-commit)은 바로 반영된다
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recordClientWrite();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ReadWriteRoutingDataSource.this);
+            }
+        });
+    }
+
+    private void recordClientWrite() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        attributes.setAttribute(LAST_WRITE_ATTRIBUTE, now, RequestAttributes.SCOPE_REQUEST);
+        if (attributes instanceof ServletRequestAttributes) {
+            HttpServletResponse response = ((ServletRequestAttributes) attributes).getResponse();
+            if (response != null && !response.isCommitted()) {
+                Cookie cookie = new Cookie(LAST_WRITE_COOKIE, String.valueOf(now));
+                cookie.setPath("/");
+                cookie.setHttpOnly(true);
+                cookie.setMaxAge((int) Math.max(1, (readYourWritesWindowMillis + 999) / 1000));
+                response.addCookie(cookie);
+                response.setHeader(LAST_WRITE_HEADER, String.valueOf(now));
+            }
+        }
+    }
+
+    // 이번 요청에서 쓴 시각 > 요청 헤더 > 쿠키 순서. 모르면 아주 오래전으로 본다.
+    private static long clientLastWrite() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return Long.MIN_VALUE / 2;
+        }
+        Object recorded = attributes.getAttribute(LAST_WRITE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (recorded instanceof Long) {
+            return (Long) recorded;
+        }
+        if (attributes instanceof ServletRequestAttributes) {
+            HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+            String header = request.getHeader(LAST_WRITE_HEADER);
+            if (header != null) {
+                return parse(header);
+            }
+            if (request.getCookies() != null) {
+                for (Cookie cookie : request.getCookies()) {
+                    if (LAST_WRITE_COOKIE.equals(cookie.getName())) {
+                        return parse(cookie.getValue());
+                    }
+                }
+            }
+        }
+        return Long.MIN_VALUE / 2;
+    }
+
+    // 클라이언트가 보낸 값이므로 미래 시각은 무시한다. (받아주면 그 시각까지 읽기가 계속 primary 로 간다)
+    private static long parse(String value) {
+        try {
+            long lastWrite = Long.parseLong(value.trim());
+            return lastWrite <= System.currentTimeMillis() ? lastWrite : Long.MIN_VALUE / 2;
+        } catch (NumberFormatException e) {
+            return Long.MIN_VALUE / 2;
+        }
+    }
+
+    private interface ConnectionOpener {
+        Connection open(DataSource dataSource) throws SQLException;
+    }
+}
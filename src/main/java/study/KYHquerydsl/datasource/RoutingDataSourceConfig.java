@@ -0,0 +1,64 @@
+package study.KYHquerydsl.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * `datasource.routing.enabled=true` 면 primary/replica 두 커넥션 풀을 만들고 {@link ReadWriteRoutingDataSource} 로 묶는다.
+ * DataSource 빈을 직접 등록하므로 스프링 부트의 기본 DataSource 자동 설정은 빠진다.
+ * p6spy 는 바깥 데이터소스에만 붙인다. (`decorator.datasource.exclude-beans`, 안쪽까지 감싸면 SQL 이 두 번 기록된다)
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.routing.enabled", havingValue = "true")
+@EnableConfigurationProperties(RoutingDataSourceProperties.class)
+public class RoutingDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(RoutingDataSourceProperties properties) {
+        RoutingDataSourceProperties.Replica replica = properties.getReplica();
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replica.getUrl())
+                .username(replica.getUsername())
+                .password(replica.getPassword())
+                .driverClassName(replica.getDriverClassName())
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+        dataSource.setConnectionTimeout(replica.getConnectionTimeout().toMillis());
+        dataSource.setInitializationFailTimeout(-1);  // replica 가 내려가 있어도 기동은 한다 (읽기는 primary 로)
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 RoutingDataSourceProperties properties) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(
+                primaryDataSource, replicaDataSource,
+                properties.getReplicaFailureBackoff(), properties.getReadYourWritesWindow()));
+    }
+}
@@ -0,0 +1,36 @@
+package study.KYHquerydsl.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 읽기/쓰기 데이터소스 분리 설정. primary 는 `spring.datasource` 를 그대로 쓰고, replica 만 여기서 설정한다.
+ */
+@ConfigurationProperties(prefix = "datasource.routing")
+@Getter @Setter
+public class RoutingDataSourceProperties {
+
+    private boolean enabled = false;
+
+    // replica 커넥션을 얻지 못하면 이 시간 동안은 읽기도 primary 로 보낸다.
+    private Duration replicaFailureBackoff = Duration.ofSeconds(30);
+
+    // 클라이언트가 쓴 트랜잭션이 커밋된 뒤 이 시간 동안은 그 클라이언트의 읽기도 primary 로 보낸다.
+    // (복제 지연 동안 방금 쓴 데이터가 안 보이는 것 방지, 쿠키/헤더로 클라이언트를 구분, 0 이면 끔)
+    private Duration readYourWritesWindow = Duration.ofSeconds(1);
+
+    private Replica replica = new Replica();
+
+    @Getter @Setter
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+        private int maximumPoolSize = 10;
+        private Duration connectionTimeout = Duration.ofSeconds(1);  // 길면 replica 장애 때 요청마다 그만큼 기다린다
+    }
+}
@@ -0,0 +1,28 @@
+package study.KYHquerydsl.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+// 청크 단위 벌크 연산의 진행 상황/결과 (MemberBulkRepository)
+@Getter
+@ToString
+public class BulkResult {
+
+    private final long rows;       // 지금까지 바뀐 행 수
+    private final int chunks;      // 지금까지 커밋된 청크 수
+    private final Duration elapsed;
+
+    public BulkResult(long rows, int chunks, Duration elapsed) {
+        this.rows = rows;
+        this.chunks = chunks;
+        this.elapsed = elapsed;
+    }
+
+    @ToString.Include
+    public double getRowsPerSecond() {
+        long millis = elapsed.toMillis();
+        return millis == 0 ? rows : rows * 1000.0 / millis;
+    }
+}
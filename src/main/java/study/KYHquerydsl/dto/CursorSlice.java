@@ -0,0 +1,19 @@
+package study.KYHquerydsl.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class CursorSlice<T> {
+
+    private final List<T> content;
+    private final String nextCursor;  // 다음 페이지가 없으면 null
+    private final boolean hasNext;
+
+    public CursorSlice(List<T> content, String nextCursor, boolean hasNext) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = hasNext;
+    }
+}
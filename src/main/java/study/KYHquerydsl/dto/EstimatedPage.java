@@ -0,0 +1,21 @@
+package study.KYHquerydsl.dto;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+// totalElements 가 count 쿼리로 센 값인지(totalExact=true), 카운터로 추정한 값인지 알려주는 Page (`searchPageEstimated`)
+public class EstimatedPage<T> extends PageImpl<T> {
+
+    private final boolean totalExact;
+
+    public EstimatedPage(List<T> content, Pageable pageable, long total, boolean totalExact) {
+        super(content, pageable, total);
+        this.totalExact = totalExact;
+    }
+
+    public boolean isTotalExact() {
+        return totalExact;
+    }
+}
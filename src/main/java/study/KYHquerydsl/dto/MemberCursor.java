@@ -0,0 +1,61 @@
+package study.KYHquerydsl.dto;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 키셋(seek) 페이징용 커서. 마지막으로 내려준 행의 (정렬 키, member_id) 를 담는다.
+ * 클라이언트에게는 {@link #encode()} 한 문자열로만 노출되므로 내부 구조는 자유롭게 바꿀 수 있다.
+ */
+@Getter
+public class MemberCursor {
+
+    public enum SortKey { ID, AGE }
+
+    private final SortKey sortKey;
+    private final Long lastSortValue;  // 첫 페이지면 null
+    private final Long lastMemberId;   // 첫 페이지면 null
+
+    private MemberCursor(SortKey sortKey, Long lastSortValue, Long lastMemberId) {
+        this.sortKey = sortKey;
+        this.lastSortValue = lastSortValue;
+        this.lastMemberId = lastMemberId;
+    }
+
+    public static MemberCursor first(SortKey sortKey) {
+        return new MemberCursor(sortKey, null, null);
+    }
+
+    public boolean isFirst() {
+        return lastMemberId == null;
+    }
+
+    public MemberCursor next(MemberTeamDto last) {
+        long sortValue = sortKey == SortKey.AGE ? last.getAge() : last.getMemberId();
+        return new MemberCursor(sortKey, sortValue, last.getMemberId());
+    }
+
+    public String encode() {
+        String raw = sortKey.name() + ":" + lastSortValue + ":" + lastMemberId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MemberCursor decode(String cursor) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("잘못된 커서 형식: " + cursor, e);
+        }
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("잘못된 커서 형식: " + cursor);
+        }
+        try {
+            return new MemberCursor(SortKey.valueOf(parts[0]), Long.valueOf(parts[1]), Long.valueOf(parts[2]));
+        } catch (IllegalArgumentException e) {  // NumberFormatException 포함
+            throw new IllegalArgumentException("잘못된 커서 형식: " + cursor, e);
+        }
+    }
+}
@@ -3,9 +3,11 @@ package study.KYHquerydsl.dto;
 import com.querydsl.core.annotations.QueryProjection;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import study.KYHquerydsl.projection.GenerateProjection;
 
 @Data
 @NoArgsConstructor
+@GenerateProjection  // 리플렉션 없는 Projection 생성 (`MemberDtoProjection`)
 public class MemberDto {
 
     private String username;
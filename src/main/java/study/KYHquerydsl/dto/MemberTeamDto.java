@@ -2,8 +2,10 @@ package study.KYHquerydsl.dto;
 
 import com.querydsl.core.annotations.QueryProjection;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor  // JSON/CBOR/Smile 응답을 다시 읽을 때 (클라이언트, 테스트)
 public class MemberTeamDto {
 
     private Long memberId;
@@ -0,0 +1,33 @@
+package study.KYHquerydsl.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.springframework.boot.jackson.JsonComponent;
+import org.springframework.boot.jackson.JsonObjectSerializer;
+
+import java.io.IOException;
+
+/**
+ * {@link MemberTeamDto} 를 리플렉션 없이 필드 순서대로 바로 쓴다. (`/v1`~`/v4` 응답, NDJSON export 공통)
+ * 필드 이름/순서/null 처리는 기본 bean 직렬화와 같다.
+ */
+@JsonComponent
+public class MemberTeamDtoSerializer extends JsonObjectSerializer<MemberTeamDto> {
+
+    @Override
+    protected void serializeObject(MemberTeamDto value, JsonGenerator jgen, SerializerProvider provider) throws IOException {
+        writeLong(jgen, "memberId", value.getMemberId());
+        jgen.writeStringField("username", value.getUsername());
+        jgen.writeNumberField("age", value.getAge());
+        writeLong(jgen, "teamId", value.getTeamId());
+        jgen.writeStringField("teamName", value.getTeamName());
+    }
+
+    private static void writeLong(JsonGenerator jgen, String name, Long value) throws IOException {
+        if (value == null) {
+            jgen.writeNullField(name);
+        } else {
+            jgen.writeNumberField(name, value);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package study.KYHquerydsl.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.Getter;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * `/v2`, `/v3` 응답용 페이지. `PageImpl` 을 그대로 내보내면 pageable/sort 객체까지 매번 직렬화되므로 필요한 값만 담는다.
+ * estimated 는 `searchPageEstimated` 결과일 때만 들어간다. (total 이 추정값이면 true)
+ */
+@Getter
+@JsonPropertyOrder({"content", "page", "size", "total", "hasNext", "estimated"})
+public class PageResponse<T> {
+
+    private final List<T> content;
+    private final int page;
+    private final int size;
+    private final long total;
+    private final boolean hasNext;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final Boolean estimated;
+
+    public PageResponse(List<T> content, int page, int size, long total, boolean hasNext, Boolean estimated) {
+        this.content = content;
+        this.page = page;
+        this.size = size;
+        this.total = total;
+        this.hasNext = hasNext;
+        this.estimated = estimated;
+    }
+
+    public static <T> PageResponse<T> of(Page<T> page) {
+        Boolean estimated = page instanceof EstimatedPage ? !((EstimatedPage<T>) page).isTotalExact() : null;
+        return new PageResponse<>(page.getContent(), page.getNumber(), page.getSize(),
+                page.getTotalElements(), page.hasNext(), estimated);
+    }
+}
@@ -0,0 +1,26 @@
+package study.KYHquerydsl.dto;
+
+import lombok.Data;
+
+// 팀별 나이 통계 (`QuerydslBasicTest.aggregation/group` 의 count, sum, avg, max, min). 회원이 없으면 avg/min/max 는 null
+@Data
+public class TeamStatsDto {
+
+    private Long teamId;
+    private String teamName;
+    private long count;
+    private long ageSum;
+    private Double ageAvg;
+    private Integer ageMin;
+    private Integer ageMax;
+
+    public TeamStatsDto(Long teamId, String teamName, long count, long ageSum, Integer ageMin, Integer ageMax) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.count = count;
+        this.ageSum = ageSum;
+        this.ageAvg = count > 0 ? (double) ageSum / count : null;
+        this.ageMin = ageMin;
+        this.ageMax = ageMax;
+    }
+}
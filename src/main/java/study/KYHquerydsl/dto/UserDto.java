@@ -2,9 +2,11 @@ package study.KYHquerydsl.dto;
 
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import study.KYHquerydsl.projection.GenerateProjection;
 
 @Data
 @NoArgsConstructor
+@GenerateProjection  // 리플렉션 없는 Projection 생성 (`UserDtoProjection`)
 public class UserDto {
 
     private String name;
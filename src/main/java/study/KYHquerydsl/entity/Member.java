@@ -1,6 +1,9 @@
 package study.KYHquerydsl.entity;
 
 import lombok.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 
@@ -8,10 +11,18 @@ import javax.persistence.*;
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})  // team을 넣으면 무한루프에 빠질 가능성이 있음
+// 검색조건(usernameEq -> teamNameEq -> ageGoe/ageLoe) 순서에 맞춘 인덱스. 동등 조건 컬럼을 앞에, 범위 조건(age)을 뒤에 둔다.
+@Table(indexes = {
+        @Index(name = "idx_member_username_age", columnList = "username, age"),
+        @Index(name = "idx_member_team_age", columnList = "team_id, age"),  // team 조인 + 나이 범위
+        @Index(name = "idx_member_age_id", columnList = "age, member_id")   // 나이 범위 + 키셋 페이징 정렬 (age, member_id)
+})
 public class Member {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "member_seq")
+    @GenericGenerator(name = "member_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "member_seq"))
     @Column(name = "member_id")
     private Long id;
     private String username;
@@ -1,6 +1,11 @@
 package study.KYHquerydsl.entity;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -10,9 +15,15 @@ import java.util.List;
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})  // members을 넣으면 무한루프에 빠질 가능성이 있음
+@Table(indexes = @Index(name = "idx_team_name", columnList = "name"))
+// 팀은 작고 거의 바뀌지 않으므로 2차 캐시에 둔다. (변경 직후 잠깐 이전 값이 보일 수 있는 NONSTRICT_READ_WRITE)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "team")
 public class Team {
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "team_seq")
+    @GenericGenerator(name = "team_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "team_seq"))
     @Column(name = "team_id")
     private Long id;
     private String name;
@@ -0,0 +1,67 @@
+package study.KYHquerydsl.jdbc;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 개발 모드용 N+1 감지. 같은 모양의 SQL 이 한 트랜잭션(또는 요청) 안에서 threshold 번을 넘게 실행되면
+ * 호출 위치 스택 트레이스와 함께 경고 로그를 남긴다. (`jdbc.repeated-query.threshold`, 0 이면 끔)
+ * 트랜잭션은 끝날 때, 요청은 {@link RepeatedQueryScopeFilter} 에서 카운트를 초기화한다.
+ */
+@Slf4j
+@Component
+public class RepeatedQueryDetector extends SimpleJdbcEventListener {
+
+    private static final ThreadLocal<Map<String, Integer>> COUNTS = ThreadLocal.withInitial(HashMap::new);
+
+    private final int threshold;
+
+    public RepeatedQueryDetector(@Value("${jdbc.repeated-query.threshold:0}") int threshold) {
+        this.threshold = threshold;
+    }
+
+    public static void reset() {
+        COUNTS.remove();
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        if (threshold <= 0 || !bindScope()) {
+            return;
+        }
+        String sql = statementInformation.getSql();
+        int count = COUNTS.get().merge(sql, 1, Integer::sum);
+        if (count == threshold + 1) {  // 범위마다 쿼리 모양별로 한 번만 경고
+            log.warn("같은 쿼리가 한 트랜잭션/요청 안에서 {}번 넘게 실행됨 (N+1 의심): {}",
+                    threshold, sql, new Throwable("repeated query call site"));
+        }
+    }
+
+    // 트랜잭션이나 요청 범위 밖(배치 스레드 등)에서는 카운트가 초기화되지 않으므로 세지 않는다.
+    private boolean bindScope() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (!TransactionSynchronizationManager.hasResource(this)) {
+                TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(RepeatedQueryDetector.this);
+                        reset();
+                    }
+                });
+            }
+            return true;
+        }
+        return RequestContextHolder.getRequestAttributes() != null;
+    }
+}
@@ -0,0 +1,27 @@
+package study.KYHquerydsl.jdbc;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 요청이 끝나면 {@link RepeatedQueryDetector} 의 카운트를 초기화한다.
+ */
+@Component
+public class RepeatedQueryScopeFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RepeatedQueryDetector.reset();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package study.KYHquerydsl.jdbc;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * JDBC 계층(p6spy)에서 실행된 SQL statement 수를 스레드별로 센다.
+ * 구간 전후의 {@link #current()} 차이가 그 구간에서 DB 로 나간 statement 수다. (배치 실행은 1번으로 센다)
+ * 스레드별로 세므로 다른 스레드에서 실행된 statement 는 들어가지 않는다.
+ * 예: parallel-count 의 count 쿼리(count-query-* 스레드), MemberRepositoryAsync 의 조회(MemberQueryExecutor 스레드)
+ */
+@Component
+public class SqlStatementCounter extends SimpleJdbcEventListener {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    public static long current() {
+        return COUNT.get()[0];
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        COUNT.get()[0]++;
+    }
+}
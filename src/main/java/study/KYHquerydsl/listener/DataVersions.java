@@ -0,0 +1,76 @@
+package study.KYHquerydsl.listener;
+
+import org.springframework.stereotype.Component;
+import study.KYHquerydsl.entity.Member;
+import study.KYHquerydsl.entity.Team;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 테이블별 데이터 버전. Member/Team 변경이 커밋될 때마다 1 증가한다. (ETag 계산용, `MemberEtags` 참고)
+ * 시작값은 기동 시각이라 재시작 전에 발급한 버전과 겹치지 않는다.
+ * 이 애플리케이션을 거친 변경만 알 수 있다. (DB 에 직접 실행한 SQL, 다른 인스턴스의 변경은 모른다)
+ */
+@Component
+public class DataVersions implements EntityChangeHandler {
+
+    private final AtomicLong member;
+    private final AtomicLong team;
+    private volatile long changedAt;  // 마지막으로 버전이 오른 시각 (epoch millis)
+
+    public DataVersions() {
+        long epoch = System.currentTimeMillis();
+        this.member = new AtomicLong(epoch);
+        this.team = new AtomicLong(epoch);
+    }
+
+    public long member() {
+        return member.get();
+    }
+
+    public long team() {
+        return team.get();
+    }
+
+    public long changedAt() {
+        return changedAt;
+    }
+
+    // 롤백된 변경으로 버전이 올라가지 않도록 커밋 후에 반영한다.
+    @Override
+    public boolean afterCommit() {
+        return true;
+    }
+
+    @Override
+    public void onInsert(Object entity) {
+        bump(entity.getClass());
+    }
+
+    @Override
+    public void onUpdate(Object entity, Object[] oldState, String[] propertyNames) {
+        bump(entity.getClass());
+    }
+
+    @Override
+    public void onDelete(Object entity) {
+        bump(entity.getClass());
+    }
+
+    @Override
+    public void onBulkChange(Class<?> entityType, Collection<Long> ids) {
+        bump(entityType);
+    }
+
+    private void bump(Class<?> entityType) {
+        if (Member.class.isAssignableFrom(entityType)) {
+            member.incrementAndGet();
+        } else if (Team.class.isAssignableFrom(entityType)) {
+            team.incrementAndGet();
+        } else {
+            return;
+        }
+        changedAt = System.currentTimeMillis();
+    }
+}
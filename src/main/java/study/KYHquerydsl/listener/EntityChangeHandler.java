@@ -0,0 +1,49 @@
+package study.KYHquerydsl.listener;
+
+import java.util.Collection;
+
+/**
+ * {@link EntityChangeListener} 가 Hibernate 엔티티 변경 이벤트를 전달하는 대상.
+ * 캐시 무효화처럼 엔티티 변경에 반응해야 하는 빈이 구현한다.
+ */
+public interface EntityChangeHandler {
+
+    // false 면 이벤트를 전달하지 않는다. (기능이 꺼져 있을 때)
+    default boolean isEnabled() {
+        return true;
+    }
+
+    // true 면 flush 시점이 아니라 트랜잭션 커밋 후에 전달한다. (롤백된 변경은 전달되지 않음)
+    default boolean afterCommit() {
+        return false;
+    }
+
+    default void onInsert(Object entity) {
+    }
+
+    // oldState 는 propertyNames 와 같은 순서의 변경 전 값 (알 수 없으면 null)
+    default void onUpdate(Object entity, Object[] oldState, String[] propertyNames) {
+    }
+
+    default void onDelete(Object entity) {
+    }
+
+    // 아래는 이벤트 시점(flush)의 값(state)까지 받는 버전. 기본 구현은 위 메서드로 넘긴다.
+    // afterCommit 핸들러는 커밋 후에 호출되므로 엔티티에는 트랜잭션 마지막 값이 들어있다.
+    // 한 트랜잭션에서 여러 번 flush 되는 경우 각 이벤트의 값이 필요하면 엔티티 대신 state 에서 읽는다.
+    default void onInsert(Object entity, Object[] state, String[] propertyNames) {
+        onInsert(entity);
+    }
+
+    default void onUpdate(Object entity, Object[] oldState, Object[] state, String[] propertyNames) {
+        onUpdate(entity, oldState, propertyNames);
+    }
+
+    default void onDelete(Object entity, Object[] deletedState, String[] propertyNames) {
+        onDelete(entity);
+    }
+
+    // 벌크 update/delete 로 바뀐 행들 (MemberBulkRepository). 벌크 연산은 엔티티 이벤트가 없으므로 id 만 전달된다.
+    default void onBulkChange(Class<?> entityType, Collection<Long> ids) {
+    }
+}
@@ -0,0 +1,104 @@
+package study.KYHquerydsl.listener;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Hibernate 의 post-insert/update/delete 이벤트를 받아서 등록된 {@link EntityChangeHandler} 빈들에게 전달한다.
+ * 이벤트는 flush 시점에 발생한다. (JPQL/Querydsl 벌크 연산은 이벤트가 발생하지 않으므로, 벌크 연산을 한 쪽에서 {@link #publishBulkChange} 를 호출한다.)
+ */
+@Component
+public class EntityChangeListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory emf;
+    private final ObjectProvider<EntityChangeHandler> handlerProvider;
+    private List<EntityChangeHandler> handlers;
+
+    public EntityChangeListener(EntityManagerFactory emf, ObjectProvider<EntityChangeHandler> handlerProvider) {
+        this.emf = emf;
+        this.handlerProvider = handlerProvider;
+    }
+
+    @PostConstruct
+    public void register() {
+        handlers = handlerProvider.orderedStream()
+                .filter(EntityChangeHandler::isEnabled)
+                .collect(Collectors.toList());
+
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        Object entity = event.getEntity();
+        Object[] state = event.getState().clone();  // 커밋 후에 전달될 수 있으므로 이벤트 시점 값을 복사해 둔다.
+        String[] propertyNames = event.getPersister().getPropertyNames();
+        dispatch(handler -> handler.onInsert(entity, state, propertyNames));
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        Object entity = event.getEntity();
+        Object[] oldState = event.getOldState();
+        Object[] state = event.getState().clone();
+        String[] propertyNames = event.getPersister().getPropertyNames();
+        dispatch(handler -> handler.onUpdate(entity, oldState, state, propertyNames));
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        Object entity = event.getEntity();
+        Object[] deletedState = event.getDeletedState();
+        String[] propertyNames = event.getPersister().getPropertyNames();
+        dispatch(handler -> handler.onDelete(entity, deletedState, propertyNames));
+    }
+
+    // 현재 트랜잭션에서 벌크 update/delete 로 바뀐 행들을 알린다.
+    public void publishBulkChange(Class<?> entityType, Collection<Long> ids) {
+        dispatch(handler -> handler.onBulkChange(entityType, ids));
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private void dispatch(Consumer<EntityChangeHandler> action) {
+        for (EntityChangeHandler handler : handlers) {
+            if (handler.afterCommit() && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        action.accept(handler);
+                    }
+                });
+            } else {
+                action.accept(handler);
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package study.KYHquerydsl.listener;
+
+import org.hibernate.proxy.HibernateProxy;
+import study.KYHquerydsl.entity.Member;
+import study.KYHquerydsl.entity.Team;
+
+/**
+ * 엔티티(또는 프록시)의 id. 프록시는 초기화하지 않고 id 만 꺼낸다.
+ */
+public final class EntityIds {
+
+    private EntityIds() {
+    }
+
+    public static Long idOf(Object entity) {
+        if (entity == null) {
+            return null;
+        }
+        if (entity instanceof HibernateProxy) {
+            return (Long) ((HibernateProxy) entity).getHibernateLazyInitializer().getIdentifier();
+        }
+        if (entity instanceof Team) {
+            return ((Team) entity).getId();
+        }
+        if (entity instanceof Member) {
+            return ((Member) entity).getId();
+        }
+        throw new IllegalArgumentException("지원하지 않는 엔티티: " + entity.getClass());
+    }
+
+    // EntityChangeHandler.onUpdate 의 oldState 에서 프로퍼티 값 꺼내기 (oldState 를 모르면 null)
+    public static Object stateOf(Object[] state, String[] propertyNames, String property) {
+        if (state == null || propertyNames == null) {
+            return null;
+        }
+        for (int i = 0; i < propertyNames.length; i++) {
+            if (propertyNames[i].equals(property)) {
+                return state[i];
+            }
+        }
+        throw new IllegalArgumentException("없는 프로퍼티: " + property);
+    }
+}
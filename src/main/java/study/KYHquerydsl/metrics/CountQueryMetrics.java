@@ -0,0 +1,45 @@
+package study.KYHquerydsl.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * count 쿼리가 DB 에서 실행됐는지 기록한다. `PageableExecutionUtils.getPage` 가 생략했거나, count 캐시에서 꺼냈으면 skipped:true
+ * (`/actuator/metrics/member.repository.count.query?tag=skipped:true`)
+ */
+@Component
+@RequiredArgsConstructor
+public class CountQueryMetrics {
+
+    private final MeterRegistry registry;
+
+    public <T> Page<T> getPage(String method, List<T> content, Pageable pageable, LongSupplier countQuery) {
+        return getPage(method, content, pageable, LongSupplier::getAsLong, countQuery);
+    }
+
+    // cache: count 쿼리를 받아서 캐시에 없을 때만 실행하는 함수 (예: `query -> countCache.get(condition, query)`)
+    public <T> Page<T> getPage(String method, List<T> content, Pageable pageable,
+                               ToLongFunction<LongSupplier> cache, LongSupplier countQuery) {
+        boolean[] executed = {false};
+        Page<T> page = PageableExecutionUtils.getPage(content, pageable, () -> cache.applyAsLong(() -> {
+            executed[0] = true;
+            return countQuery.getAsLong();
+        }));
+        record(method, !executed[0]);
+        return page;
+    }
+
+    public void record(String method, boolean skipped) {
+        registry.counter("member.repository.count.query",
+                "method", method,
+                "skipped", String.valueOf(skipped)).increment();
+    }
+}
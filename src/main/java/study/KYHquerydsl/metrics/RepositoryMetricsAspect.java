@@ -0,0 +1,80 @@
+package study.KYHquerydsl.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import study.KYHquerydsl.dto.CursorSlice;
+import study.KYHquerydsl.jdbc.SqlStatementCounter;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * 리포지토리 메서드별 메트릭. (`/actuator/metrics/member.repository?tag=method:search`)
+ * - member.repository : 지연시간 (p50, p95, p99)
+ * - member.repository.rows : 반환한 행 수
+ * - member.repository.statements : 호출 한 번에 실행된 SQL statement 수
+ * count 쿼리 생략 여부는 {@link CountQueryMetrics} 가 기록한다.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryMetricsAspect {
+
+    private final MeterRegistry registry;
+
+    @Around("within(study.KYHquerydsl.repository.MemberJpaRepository) || within(study.KYHquerydsl.repository.MemberRepositoryImpl)")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        long statementsBefore = SqlStatementCounter.current();
+        Timer.Sample sample = Timer.start(registry);
+        String exception = "none";
+        try {
+            Object result = joinPoint.proceed();
+            long rows = rowCount(result);
+            if (rows >= 0) {
+                DistributionSummary.builder("member.repository.rows")
+                        .tag("method", method)
+                        .register(registry)
+                        .record(rows);
+            }
+            return result;
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("member.repository")
+                    .tag("method", method)
+                    .tag("exception", exception)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(registry));
+            DistributionSummary.builder("member.repository.statements")
+                    .tag("method", method)
+                    .register(registry)
+                    .record(SqlStatementCounter.current() - statementsBefore);
+        }
+    }
+
+    // 행 수를 알 수 없는 반환 타입(Stream, void 등)은 -1
+    private long rowCount(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Slice) {
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+        if (result instanceof CursorSlice) {
+            return ((CursorSlice<?>) result).getContent().size();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        return -1;
+    }
+}
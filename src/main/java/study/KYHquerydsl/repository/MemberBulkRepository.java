@@ -0,0 +1,14 @@
+package study.KYHquerydsl.repository;
+
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import study.KYHquerydsl.dto.BulkResult;
+import study.KYHquerydsl.dto.MemberSearchCondition;
+
+import java.util.function.Consumer;
+
+// 검색조건에 맞는 회원을 id 순 청크로 나눠서 update/delete 한다. 청크마다 별도 트랜잭션으로 커밋된다.
+// 예: bulkUpdate(condition, update -> update.set(member.age, member.age.add(1)), progress -> log.info("{}", progress))
+public interface MemberBulkRepository {
+    BulkResult bulkUpdate(MemberSearchCondition condition, Consumer<JPAUpdateClause> assignments, Consumer<BulkResult> progress);
+    BulkResult bulkDelete(MemberSearchCondition condition, Consumer<BulkResult> progress);
+}
@@ -0,0 +1,177 @@
+package study.KYHquerydsl.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.KYHquerydsl.dto.BulkResult;
+import study.KYHquerydsl.dto.MemberSearchCondition;
+import study.KYHquerydsl.entity.Member;
+import study.KYHquerydsl.listener.EntityChangeListener;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.KYHquerydsl.entity.QMember.member;
+
+// 한 문장으로 전체를 update/delete 하면(`QuerydslBasicTest.bulkUpdate` 참고) 모든 행에 락을 잡은 채로 오래 걸리고,
+// 영속성 컨텍스트는 예전 값을 그대로 들고 있다.
+// 여기서는 (id > 마지막 id) 로 chunkSize 개씩 id 를 골라서 `where id in (...)` 로 바꾸고, 청크마다 커밋한다.
+//  - 청크는 REQUIRES_NEW 트랜잭션이라, 호출한 쪽 트랜잭션의 flush 되지 않은/커밋되지 않은 변경은 보이지 않는다.
+//    호출한 쪽 영속성 컨텍스트에 flush 되지 않은 변경이 있으면 시작하지 않고 예외를 던진다. (detach 하면 그 변경이 조용히 사라진다)
+//    여기서 대신 flush 하지 않는 이유: flush 한 행은 호출한 쪽 트랜잭션이 락을 잡고 있어서 같은 행을 바꾸는 청크가 끝나지 않는다.
+//    같은 이유로 호출한 쪽 트랜잭션에서 이미 flush 한 회원도 바꿀 수 없다. 먼저 커밋하고 호출한다.
+//  - 호출한 쪽 영속성 컨텍스트에 바뀐 회원이 들어있으면 detach 한다. (다음 조회 때 DB 값을 다시 읽는다)
+//  - 청크마다 EntityChangeListener 에 알려서 count 캐시, 읽기 모델이 따라오게 한다.
+@Slf4j
+public class MemberBulkRepositoryImpl implements MemberBulkRepository {
+
+    private final EntityManager em;
+    private final EntityManagerFactory emf;
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate chunkTx;
+    private final EntityChangeListener entityChangeListener;
+    private final int chunkSize;
+
+    public MemberBulkRepositoryImpl(EntityManager em, EntityManagerFactory emf, PlatformTransactionManager transactionManager,
+                                    EntityChangeListener entityChangeListener,
+                                    @Value("${member.bulk.chunk-size:1000}") int chunkSize) {
+        this.em = em;
+        this.emf = emf;
+        this.queryFactory = new JPAQueryFactory(em);
+        this.chunkTx = new TransactionTemplate(transactionManager);
+        this.chunkTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.entityChangeListener = entityChangeListener;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public BulkResult bulkUpdate(MemberSearchCondition condition, Consumer<JPAUpdateClause> assignments, Consumer<BulkResult> progress) {
+        return inChunks("update", condition, progress, ids -> {
+            JPAUpdateClause update = queryFactory.update(member);
+            assignments.accept(update);
+            return update.where(member.id.in(ids)).execute();
+        });
+    }
+
+    @Override
+    public BulkResult bulkDelete(MemberSearchCondition condition, Consumer<BulkResult> progress) {
+        return inChunks("delete", condition, progress, ids -> queryFactory
+                .delete(member)
+                .where(member.id.in(ids))
+                .execute());
+    }
+
+    private BulkResult inChunks(String operation, MemberSearchCondition condition, Consumer<BulkResult> progress,
+                                ToLongFunction<List<Long>> chunkOperation) {
+        rejectUnflushedChanges();
+        long started = System.nanoTime();
+        long rows = 0;
+        int chunks = 0;
+        long lastId = Long.MIN_VALUE;
+        BulkResult result = new BulkResult(0, 0, Duration.ZERO);
+
+        while (true) {
+            long afterId = lastId;
+            Chunk chunk = chunkTx.execute(status -> {
+                List<Long> ids = queryFactory
+                        .select(member.id)
+                        .from(member)
+                        .where(
+                                member.id.gt(afterId),
+                                usernameEq(condition.getUsername()),
+                                teamNameEq(condition.getTeamName()),
+                                ageGoe(condition.getAgeGoe()),
+                                ageLoe(condition.getAgeLoe())
+                        )
+                        .orderBy(member.id.asc())
+                        .limit(chunkSize)
+                        .fetch();
+                if (ids.isEmpty()) {
+                    return null;
+                }
+                long affected = chunkOperation.applyAsLong(ids);
+                entityChangeListener.publishBulkChange(Member.class, ids);
+                return new Chunk(ids, affected);
+            });
+            if (chunk == null) {
+                break;
+            }
+
+            detachFromCallerContext(chunk.ids);
+            rows += chunk.affected;
+            chunks++;
+            lastId = chunk.ids.get(chunk.ids.size() - 1);
+            result = new BulkResult(rows, chunks, Duration.ofNanos(System.nanoTime() - started));
+            if (progress != null) {
+                progress.accept(result);
+            }
+            if (chunk.ids.size() < chunkSize) {
+                break;
+            }
+        }
+        log.info("bulk {} finished: {}", operation, result);
+        return result;
+    }
+
+    private void rejectUnflushedChanges() {
+        EntityManager callerEm = EntityManagerFactoryUtils.getTransactionalEntityManager(emf);
+        if (callerEm != null && callerEm.unwrap(SessionImplementor.class).isDirty()) {
+            throw new IllegalStateException("bulk operation would discard unflushed changes; commit them before calling it");
+        }
+    }
+
+    // 호출한 쪽에 열려 있는 영속성 컨텍스트(트랜잭션 또는 OSIV)가 없으면 할 일이 없다.
+    private void detachFromCallerContext(List<Long> ids) {
+        EntityManager callerEm = EntityManagerFactoryUtils.getTransactionalEntityManager(emf);
+        if (callerEm == null) {
+            return;
+        }
+        SessionImplementor session = callerEm.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(Member.class);
+        for (Long id : ids) {
+            Object managed = session.getPersistenceContextInternal().getEntity(session.generateEntityKey(id, persister));
+            if (managed != null) {
+                callerEm.detach(managed);
+            }
+        }
+    }
+
+    private static class Chunk {
+        final List<Long> ids;
+        final long affected;
+
+        Chunk(List<Long> ids, long affected) {
+            this.ids = ids;
+            this.affected = affected;
+        }
+    }
+
+    private BooleanExpression usernameEq(String usernameCond) {
+        return hasText(usernameCond) ? member.username.eq(usernameCond) : null;
+    }
+
+    private BooleanExpression teamNameEq(String teamNameCond) {
+        return hasText(teamNameCond) ? member.team.name.eq(teamNameCond) : null;
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+}
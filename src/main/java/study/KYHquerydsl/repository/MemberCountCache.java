@@ -0,0 +1,136 @@
+package study.KYHquerydsl.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.KYHquerydsl.dto.MemberSearchCondition;
+import study.KYHquerydsl.entity.Member;
+import study.KYHquerydsl.entity.Team;
+import study.KYHquerydsl.listener.EntityChangeHandler;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * `searchPageComplex` 의 count 쿼리 결과를 검색조건 단위로 캐시한다.
+ * Member/Team 이 변경되면 전체를 무효화하고, 트랜잭션이 끝날 때(커밋/롤백) 한 번 더 무효화해서
+ * 커밋되지 않은 데이터로 계산된 count 가 남지 않게 한다.
+ * count 쿼리를 실행하는 동안 무효화되면 그 결과는 이전 데이터로 센 것일 수 있으므로 캐시에 남기지 않는다.
+ * hit/miss 는 `/actuator/metrics/cache.gets?tag=cache:memberCount` 로 확인할 수 있다.
+ */
+@Component
+public class MemberCountCache implements EntityChangeHandler {
+
+    private final boolean enabled;
+    private final Cache<CountKey, Long> cache;
+    private final AtomicLong generation = new AtomicLong();  // 무효화할 때마다 증가
+
+    public MemberCountCache(@Value("${member.count-cache.enabled:true}") boolean enabled,
+                            @Value("${member.count-cache.max-size:1000}") long maxSize,
+                            @Value("${member.count-cache.ttl:30s}") Duration ttl,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "memberCount");
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long get(MemberSearchCondition condition, LongSupplier countQuery) {
+        if (!enabled) {
+            return countQuery.getAsLong();
+        }
+        CountKey key = CountKey.of(condition);
+        Long cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long started = generation.get();
+        long count = countQuery.getAsLong();
+        if (generation.get() == started) {
+            cache.put(key, count);
+            if (generation.get() != started) {  // 넣는 사이에 무효화됐으면 (그 무효화가 지우기 전에 넣었을 수 있다) 다시 뺀다.
+                cache.asMap().remove(key, count);
+            }
+        }
+        return count;
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(this)) {
+            TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(MemberCountCache.this);
+                    generation.incrementAndGet();
+                    cache.invalidateAll();
+                }
+            });
+        }
+    }
+
+    @Override
+    public void onInsert(Object entity) {
+        invalidateIfMemberOrTeam(entity);
+    }
+
+    @Override
+    public void onUpdate(Object entity, Object[] oldState, String[] propertyNames) {
+        invalidateIfMemberOrTeam(entity);
+    }
+
+    @Override
+    public void onDelete(Object entity) {
+        invalidateIfMemberOrTeam(entity);
+    }
+
+    @Override
+    public void onBulkChange(Class<?> entityType, Collection<Long> ids) {
+        if (entityType == Member.class || entityType == Team.class) {
+            invalidateAll();
+        }
+    }
+
+    private void invalidateIfMemberOrTeam(Object entity) {
+        if (entity instanceof Member || entity instanceof Team) {
+            invalidateAll();
+        }
+    }
+
+    // 검색조건 정규화: 조건 메서드(usernameEq, teamNameEq)가 공백 문자열을 무시하므로 null 과 같은 키로 취급한다.
+    @lombok.Value
+    static class CountKey {
+        String username;
+        String teamName;
+        Integer ageGoe;
+        Integer ageLoe;
+
+        static CountKey of(MemberSearchCondition condition) {
+            return new CountKey(
+                    hasText(condition.getUsername()) ? condition.getUsername() : null,
+                    hasText(condition.getTeamName()) ? condition.getTeamName() : null,
+                    condition.getAgeGoe(),
+                    condition.getAgeLoe());
+        }
+    }
+}
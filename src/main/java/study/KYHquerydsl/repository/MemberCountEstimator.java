@@ -0,0 +1,281 @@
+package study.KYHquerydsl.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.KYHquerydsl.dto.MemberSearchCondition;
+import study.KYHquerydsl.entity.Member;
+import study.KYHquerydsl.entity.Team;
+import study.KYHquerydsl.listener.EntityChangeHandler;
+import study.KYHquerydsl.listener.EntityIds;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * 검색 결과 건수 추정 (`searchPageEstimated`). 팀별 회원 수, 나이 구간(age-bucket)별 회원 수를 들고 있고
+ * 팀 조건과 나이 조건은 서로 독립이라고 가정해서 추정한다: 전체 * (팀 비율) * (나이 비율)
+ * 회원명 조건은 카운터가 없으므로 추정하지 않는다. (인덱스로 정확히 세는 게 싸다)
+ *
+ * 첫 추정 때 GROUP BY 로 한 번 읽고, 이후에는 커밋된 Member/Team 변경 이벤트로 갱신한다. refresh-interval 마다 다시 읽는다.
+ * 다시 읽는 쿼리는 락 밖에서 새 카운터에 읽고, 교체할 때만 락을 잡는다. (커밋 이벤트와 추정이 그동안 기다리지 않는다)
+ * 읽기 시작한 뒤에 들어온 이벤트는 새 카운터에 다시 반영한다. 커밋과 이벤트 사이에 읽기가 시작된 변경은
+ * 두 번 반영될 수 있지만 그 차이는 다음 refresh 때 바로잡힌다.
+ */
+@Slf4j
+@Component
+public class MemberCountEstimator implements EntityChangeHandler {
+
+    private final EntityManager em;
+    private final TransactionTemplate readOnlyTx;
+    private final int ageBucketWidth;
+    private final long refreshIntervalNanos;
+
+    // 아래 상태는 모두 this 로 동기화한다.
+    private Counts counts;  // null 이면 아직 읽지 않음
+    private boolean stale;  // 다음 추정 때 다시 읽는다 (벌크 변경 등 이벤트로 따라갈 수 없는 변경)
+    private long loadedAt;
+    private List<Consumer<Counts>> pending;  // 다시 읽는 중이면 그동안 들어온 이벤트, 아니면 null
+
+    public MemberCountEstimator(EntityManager em, PlatformTransactionManager transactionManager,
+                                @Value("${member.search.estimate.age-bucket:5}") int ageBucketWidth,
+                                @Value("${member.search.estimate.refresh-interval:10m}") Duration refreshInterval) {
+        this.em = em;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.readOnlyTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ageBucketWidth = ageBucketWidth;
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+    }
+
+    @Override
+    public boolean afterCommit() {
+        return true;
+    }
+
+    // 처음 읽는 중이라 아직 카운터가 없으면 empty (호출한 쪽에서 정확히 센다)
+    public OptionalLong estimate(MemberSearchCondition condition) {
+        if (hasText(condition.getUsername())) {
+            return OptionalLong.empty();
+        }
+        reloadIfNeeded();
+        synchronized (this) {
+            return counts != null ? OptionalLong.of(counts.estimate(condition)) : OptionalLong.empty();
+        }
+    }
+
+    // 커밋 후에 호출되므로 엔티티가 아니라 이벤트 시점 값(state)을 읽는다. (한 트랜잭션에서 여러 번 flush 된 경우)
+    @Override
+    public void onInsert(Object entity, Object[] state, String[] propertyNames) {
+        if (entity instanceof Member) {
+            Long teamId = EntityIds.idOf(EntityIds.stateOf(state, propertyNames, "team"));
+            int age = (Integer) EntityIds.stateOf(state, propertyNames, "age");
+            apply(counts -> counts.add(teamId, age, 1));
+        } else if (entity instanceof Team) {
+            Long teamId = ((Team) entity).getId();
+            String name = (String) EntityIds.stateOf(state, propertyNames, "name");
+            apply(counts -> counts.teamNameById.put(teamId, name));
+        }
+    }
+
+    @Override
+    public void onUpdate(Object entity, Object[] oldState, Object[] state, String[] propertyNames) {
+        if (entity instanceof Member) {
+            if (oldState == null) {  // 변경 전 값을 모르면 다시 읽는다.
+                invalidate();
+                return;
+            }
+            Long oldTeamId = EntityIds.idOf(EntityIds.stateOf(oldState, propertyNames, "team"));
+            Integer oldAge = (Integer) EntityIds.stateOf(oldState, propertyNames, "age");
+            Long teamId = EntityIds.idOf(EntityIds.stateOf(state, propertyNames, "team"));
+            int age = (Integer) EntityIds.stateOf(state, propertyNames, "age");
+            apply(counts -> {
+                counts.add(oldTeamId, oldAge, -1);
+                counts.add(teamId, age, 1);
+            });
+        } else if (entity instanceof Team) {
+            Long teamId = ((Team) entity).getId();
+            String name = (String) EntityIds.stateOf(state, propertyNames, "name");
+            apply(counts -> counts.teamNameById.put(teamId, name));
+        }
+    }
+
+    @Override
+    public void onDelete(Object entity, Object[] deletedState, String[] propertyNames) {
+        if (entity instanceof Member) {
+            Long teamId = EntityIds.idOf(EntityIds.stateOf(deletedState, propertyNames, "team"));
+            int age = (Integer) EntityIds.stateOf(deletedState, propertyNames, "age");
+            apply(counts -> counts.add(teamId, age, -1));
+        } else if (entity instanceof Team) {
+            Long teamId = ((Team) entity).getId();
+            apply(counts -> counts.teamNameById.remove(teamId));
+        }
+    }
+
+    // 벌크 연산은 바뀐 값을 모르므로 다음 추정 때 다시 읽는다.
+    @Override
+    public synchronized void onBulkChange(Class<?> entityType, Collection<Long> ids) {
+        stale = true;
+    }
+
+    private synchronized void invalidate() {
+        stale = true;
+    }
+
+    // 이벤트 시점 값으로 만든 변경을 현재 카운터에 반영한다. 다시 읽는 중이면 새 카운터에도 반영하도록 남겨둔다.
+    private synchronized void apply(Consumer<Counts> change) {
+        if (counts != null) {
+            change.accept(counts);
+        }
+        if (pending != null) {
+            pending.add(change);
+        }
+    }
+
+    private void reloadIfNeeded() {
+        synchronized (this) {
+            boolean due = counts == null || stale || System.nanoTime() - loadedAt >= refreshIntervalNanos;
+            if (!due || !beginReload()) {  // 다른 스레드가 읽는 중이면 지금 카운터를 그대로 쓴다.
+                return;
+            }
+        }
+        long started = System.currentTimeMillis();
+        Counts loaded;
+        try {
+            loaded = readOnlyTx.execute(status -> load(
+                    em.createQuery("select t.id, t.name from Team t", Object[].class)
+                            .getResultList().iterator(),
+                    em.createQuery("select m.team.id, count(m) from Member m group by m.team.id", Object[].class)
+                            .getResultList().iterator(),
+                    em.createQuery("select m.age, count(m) from Member m group by m.age", Object[].class)
+                            .getResultList().iterator()));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pending = null;
+                stale = true;
+            }
+            throw e;
+        }
+        swap(loaded);
+        log.info("member count estimator loaded: {} members, {} teams in {} ms",
+                loaded.total, loaded.teamNameById.size(), System.currentTimeMillis() - started);
+    }
+
+    // 이제부터 들어오는 이벤트를 모아둔다. 이미 다른 스레드가 읽는 중이면 false
+    synchronized boolean beginReload() {
+        if (pending != null) {
+            return false;
+        }
+        pending = new ArrayList<>();
+        stale = false;
+        return true;
+    }
+
+    // teamRows: (team id, name), teamCountRows: (team id 또는 null, count), ageCountRows: (age, count)
+    void rebuild(Iterator<Object[]> teamRows, Iterator<Object[]> teamCountRows, Iterator<Object[]> ageCountRows) {
+        Counts loaded = load(teamRows, teamCountRows, ageCountRows);
+        synchronized (this) {
+            if (pending == null) {  // 직접 다시 읽은 경우 (beginReload 없이)
+                stale = false;
+            }
+            swap(loaded);
+        }
+    }
+
+    private Counts load(Iterator<Object[]> teamRows, Iterator<Object[]> teamCountRows, Iterator<Object[]> ageCountRows) {
+        Counts loaded = new Counts();
+        teamRows.forEachRemaining(row -> loaded.teamNameById.put((Long) row[0], (String) row[1]));
+        teamCountRows.forEachRemaining(row -> {
+            loaded.total += (Long) row[1];
+            if (row[0] != null) {  // 팀 없는 회원은 전체 수에만 들어간다.
+                loaded.countByTeamId.put((Long) row[0], (Long) row[1]);
+            }
+        });
+        ageCountRows.forEachRemaining(row -> loaded.countByAgeBucket.merge(bucketOf((Integer) row[0]), (Long) row[1], Long::sum));
+        return loaded;
+    }
+
+    private synchronized void swap(Counts loaded) {
+        if (pending != null) {
+            pending.forEach(change -> change.accept(loaded));
+            pending = null;
+        }
+        counts = loaded;
+        loadedAt = System.nanoTime();
+    }
+
+    private int bucketOf(int age) {
+        return Math.floorDiv(age, ageBucketWidth);
+    }
+
+    private class Counts {
+        long total;
+        final Map<Long, Long> countByTeamId = new HashMap<>();
+        final Map<Long, String> teamNameById = new HashMap<>();
+        final TreeMap<Integer, Long> countByAgeBucket = new TreeMap<>();
+
+        void add(Long teamId, int age, long delta) {
+            total += delta;
+            if (teamId != null) {
+                countByTeamId.merge(teamId, delta, Long::sum);
+            }
+            countByAgeBucket.merge(bucketOf(age), delta, Long::sum);
+        }
+
+        long estimate(MemberSearchCondition condition) {
+            if (total <= 0) {
+                return 0;
+            }
+            double estimate = total;
+            if (hasText(condition.getTeamName())) {
+                estimate *= countOfTeam(condition.getTeamName()) / (double) total;
+            }
+            if (condition.getAgeGoe() != null || condition.getAgeLoe() != null) {
+                estimate *= countOfAge(condition.getAgeGoe(), condition.getAgeLoe()) / total;
+            }
+            return Math.round(estimate);
+        }
+
+        // 팀명은 유일하지 않으므로 같은 이름의 팀을 모두 더한다.
+        private long countOfTeam(String teamName) {
+            long count = 0;
+            for (Map.Entry<Long, String> entry : teamNameById.entrySet()) {
+                if (teamName.equals(entry.getValue())) {
+                    count += countByTeamId.getOrDefault(entry.getKey(), 0L);
+                }
+            }
+            return count;
+        }
+
+        // 구간 안에서는 나이가 고르게 퍼져 있다고 보고, 조건 범위에 걸친 만큼만 센다.
+        private double countOfAge(Integer ageGoe, Integer ageLoe) {
+            int lo = ageGoe != null ? ageGoe : Integer.MIN_VALUE;
+            int hi = ageLoe != null ? ageLoe : Integer.MAX_VALUE;
+            if (lo > hi) {
+                return 0;
+            }
+            double count = 0;
+            for (Map.Entry<Integer, Long> entry : countByAgeBucket.subMap(bucketOf(lo), true, bucketOf(hi), true).entrySet()) {
+                long bucketStart = (long) entry.getKey() * ageBucketWidth;
+                long bucketEnd = bucketStart + ageBucketWidth - 1;
+                long overlap = Math.min(bucketEnd, hi) - Math.max(bucketStart, lo) + 1;
+                count += entry.getValue() * (double) overlap / ageBucketWidth;
+            }
+            return count;
+        }
+    }
+}
@@ -3,16 +3,29 @@ package study.KYHquerydsl.repository;
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.QueryHints;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import study.KYHquerydsl.dto.MemberSearchCondition;
 import study.KYHquerydsl.dto.MemberTeamDto;
 import study.KYHquerydsl.dto.QMemberTeamDto;
 import study.KYHquerydsl.entity.Member;
 
 import javax.persistence.EntityManager;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.springframework.util.StringUtils.*;
 import static study.KYHquerydsl.entity.QMember.*;
@@ -24,6 +37,11 @@ public class MemberJpaRepository {
 
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final MemberReadModel memberReadModel;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${member.lookup.max-in-size:256}")
+    private int maxInSize;
 
 /*
     // 생성자에서 JPAQueryFactory를 생성해서 넣는 방법
@@ -54,28 +72,59 @@ public class MemberJpaRepository {
         em.persist(member);
     }
 
+    @Transactional(readOnly = true)
     public Optional<Member> findById(Long id) {
         Member findMember = em.find(Member.class, id);
         return Optional.ofNullable(findMember);
     }
 
+    // id 여러 개를 IN 쿼리로 한 번에 조회한다. (findById 를 반복하면 id 마다 DB 왕복)
+    // 결과는 요청한 id 순서대로 담기고, 없는 id 는 빠진다.
+    @Transactional(readOnly = true)
+    public Map<Long, Member> findAllByIds(Collection<Long> ids) {
+        return findAllByIds(ids, chunk -> queryFactory
+                .selectFrom(member)
+                .where(member.id.in(chunk))
+                .fetch(), Member::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Long, MemberTeamDto> findAllDtoByIds(Collection<Long> ids) {
+        return findAllByIds(ids, chunk -> queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")
+                ))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(member.id.in(chunk))
+                .fetch(), MemberTeamDto::getMemberId);
+    }
+
+    @Transactional(readOnly = true)
     public List<Member> findAll() {
         return em.createQuery("select m from Member m", Member.class)
                 .getResultList();
     }
 
+    @Transactional(readOnly = true)
     public List<Member> findAll_Querydsl() {
         return queryFactory
                 .selectFrom(member)
                 .fetch();
     }
 
+    @Transactional(readOnly = true)
     public List<Member> findByUserName(String username) {
         return em.createQuery("select m from Member m where m.username = :username", Member.class)
                 .setParameter("username", username)
                 .getResultList();
     }
 
+    @Transactional(readOnly = true)
     public List<Member> findByUserName_Querydsl(String username) {
         return queryFactory
                 .selectFrom(member)
@@ -83,6 +132,7 @@ public class MemberJpaRepository {
                 .fetch();
     }
 
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition) {
 
         BooleanBuilder builder = new BooleanBuilder();
@@ -114,10 +164,14 @@ public class MemberJpaRepository {
     }
 
     // Where 다중 파라미터 사용
+    @Transactional(readOnly = true)
 /*
     public List<Member> search(MemberSearchCondition condition) {
 */
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        if (memberReadModel.isEnabled()) {  // member.search.mode=memory 면 메모리 읽기 모델에서 조회
+            return memberReadModel.search(condition);
+        }
         return queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
@@ -144,6 +198,68 @@ public class MemberJpaRepository {
                 .fetch();
     }
 
+    // 결과 전체를 List 로 올리지 않고 한 행씩 꺼내 쓰는 스트림. 드라이버가 fetchSize 만큼씩 끊어서 가져온다.
+    // 반드시 트랜잭션 안에서 사용하고, 다 쓰면 close 해야 커넥션/커서가 반환된다.
+    public Stream<MemberTeamDto> searchStream(MemberSearchCondition condition, int fetchSize) {
+        return queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")
+                ))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .setHint(QueryHints.FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.READ_ONLY, true)
+                .stream();
+    }
+
+    // id 를 최대 maxInSize(2의 거듭제곱으로 내림) 개씩 나눠서 조회한다.
+    // hibernate.query.in_clause_parameter_padding 을 켜면 IN 목록이 2의 거듭제곱 크기로 채워지므로
+    // id 개수가 달라도 쿼리 플랜/SQL 이 몇 개로 모여서 재사용된다. (hibernate.cache.query.plan 메트릭의 hit)
+    // 꺼져 있으면 id 개수마다 플랜이 따로 생긴다. member.lookup.queries 의 in 태그는 실제로 나간 IN 목록 크기다.
+    private <T> Map<Long, T> findAllByIds(Collection<Long> ids, Function<List<Long>, List<T>> query, Function<T, Long> idOf) {
+        List<Long> distinctIds = ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        int chunkSize = Integer.highestOneBit(Math.max(1, maxInSize));
+        boolean padding = em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getSessionFactoryOptions().inClauseParameterPaddingEnabled();
+
+        Map<Long, T> found = new HashMap<>(distinctIds.size() * 2);
+        for (int from = 0; from < distinctIds.size(); from += chunkSize) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + chunkSize, distinctIds.size()));
+            int inSize = padding ? paddedSize(chunk.size()) : chunk.size();
+            meterRegistry.counter("member.lookup.queries", "in", String.valueOf(inSize)).increment();
+            for (T row : query.apply(chunk)) {
+                found.put(idOf.apply(row), row);
+            }
+        }
+
+        Map<Long, T> result = new LinkedHashMap<>(distinctIds.size() * 2);
+        for (Long id : distinctIds) {
+            T row = found.get(id);
+            if (row != null) {
+                result.put(id, row);
+            }
+        }
+        return result;
+    }
+
+    // in_clause_parameter_padding 이 켜져 있을 때 Hibernate 가 채우는 IN 목록 크기 (size 이상인 가장 작은 2의 거듭제곱)
+    static int paddedSize(int size) {
+        return size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+    }
+
     // 반환타입을 `Predicate` 보다 `BooleanExpression` 으로 하는 것이 향후 확장성이 좋다. composition이 가능하다.(결합) (`QuerydslBasicTest`의 `allEq` 참고)
 
     private BooleanExpression usernameEq(String usernameCond) {
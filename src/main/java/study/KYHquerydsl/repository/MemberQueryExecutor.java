@@ -0,0 +1,97 @@
+package study.KYHquerydsl.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * 비동기 조회(`MemberRepositoryAsync`)를 실행하는 전용 스레드풀.
+ * 스레드 수와 대기 큐 크기가 제한되어 있고(`member.async.*`), 큐가 가득 차면 기다리지 않고 실패한 future 를 돌려준다.
+ * 작업마다 별도의 읽기 전용 트랜잭션(= 별도의 EntityManager, 커넥션)에서 실행되므로,
+ * 호출한 쪽 트랜잭션의 커밋되지 않은 변경은 보이지 않는다.
+ * 호출한 스레드의 요청 정보(RequestContextHolder)와 MDC 는 작업 스레드로 복사된다.
+ */
+@Slf4j
+@Component
+public class MemberQueryExecutor {
+
+    private final int queueCapacity;
+    private final ThreadPoolTaskExecutor executor;
+    private final TransactionTemplate readOnlyTx;
+
+    public MemberQueryExecutor(PlatformTransactionManager transactionManager,
+                               @Value("${member.async.pool-size:8}") int poolSize,
+                               @Value("${member.async.queue-capacity:200}") int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("member-query-");
+        executor.setTaskDecorator(new RequestContextTaskDecorator());
+        executor.initialize();
+
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        readOnlyTx.setReadOnly(true);
+    }
+
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> query) {
+        try {
+            return CompletableFuture.supplyAsync(() -> readOnlyTx.execute(status -> query.get()), executor);
+        } catch (TaskRejectedException e) {
+            log.warn("member query executor is full (queue capacity {})", queueCapacity);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // 요청 스레드의 RequestAttributes, MDC 를 작업 스레드에 붙였다가 작업이 끝나면 되돌린다.
+    // 요청이 먼저 끝나버리면 request 속성은 더 이상 유효하지 않으므로, 호출한 쪽은 응답 전에 future 를 기다려야 한다.
+    static class RequestContextTaskDecorator implements TaskDecorator {
+
+        @Override
+        public Runnable decorate(Runnable runnable) {
+            RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+            Map<String, String> mdc = MDC.getCopyOfContextMap();
+            return () -> {
+                RequestAttributes previousAttributes = RequestContextHolder.getRequestAttributes();
+                Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+                RequestContextHolder.setRequestAttributes(requestAttributes);
+                setMdc(mdc);
+                try {
+                    runnable.run();
+                } finally {
+                    RequestContextHolder.setRequestAttributes(previousAttributes);
+                    setMdc(previousMdc);
+                }
+            };
+        }
+
+        private static void setMdc(Map<String, String> contextMap) {
+            if (contextMap == null) {
+                MDC.clear();
+            } else {
+                MDC.setContextMap(contextMap);
+            }
+        }
+    }
+}
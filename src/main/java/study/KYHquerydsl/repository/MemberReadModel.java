@@ -0,0 +1,325 @@
+package study.KYHquerydsl.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.KYHquerydsl.dto.MemberSearchCondition;
+import study.KYHquerydsl.dto.MemberTeamDto;
+import study.KYHquerydsl.entity.Member;
+import study.KYHquerydsl.entity.Team;
+import study.KYHquerydsl.listener.EntityChangeHandler;
+import study.KYHquerydsl.listener.EntityIds;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * `member.search.mode=memory` 일 때 `MemberJpaRepository.search` 를 DB 없이 처리하는 메모리 읽기 모델.
+ * 회원 행을 컬럼별 배열(나이 int[], 회원/팀 id long[], 이름/팀명은 딕셔너리 코드 int[])로 들고 있고,
+ * 첫 조회 때 한 번 전체를 읽은 뒤에는 Member/Team 커밋 이벤트로 갱신한다.
+ * 커밋된 데이터만 반영되므로, 같은 트랜잭션 안에서 방금 저장한 회원은 조회되지 않는다.
+ */
+@Slf4j
+@Component
+public class MemberReadModel implements EntityChangeHandler {
+
+    private static final int NULL_CODE = -1;  // null 값
+    private static final int NO_MATCH = -2;   // 딕셔너리에 없는 값 (결과 없음)
+    private static final int ANY = -3;        // 조건 없음
+    private static final long NO_TEAM = Long.MIN_VALUE;
+
+    private final EntityManager em;
+    private final TransactionTemplate readOnlyTx;
+    private final boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean loaded;
+
+    private long[] memberIds = new long[0];
+    private int[] ages = new int[0];
+    private long[] teamIds = new long[0];
+    private int[] usernameCodes = new int[0];
+    private int[] teamNameCodes = new int[0];
+    private int size;
+
+    private final Map<Long, Integer> rowByMemberId = new HashMap<>();
+    private final Map<Long, Integer> teamNameCodeByTeamId = new HashMap<>();
+    private final StringDictionary usernames = new StringDictionary();
+    private final StringDictionary teamNames = new StringDictionary();
+
+    public MemberReadModel(EntityManager em, PlatformTransactionManager transactionManager,
+                           @Value("${member.search.mode:database}") String mode) {
+        this.em = em;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        // 커밋 후 콜백(onBulkChange)에서도 읽으므로 끝난 트랜잭션에 참여하지 않게 새 트랜잭션으로 읽는다.
+        this.readOnlyTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = "memory".equalsIgnoreCase(mode);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public boolean afterCommit() {
+        return true;
+    }
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            int usernameCode = hasText(condition.getUsername()) ? usernames.find(condition.getUsername()) : ANY;
+            int teamNameCode = hasText(condition.getTeamName()) ? teamNames.find(condition.getTeamName()) : ANY;
+            if (usernameCode == NO_MATCH || teamNameCode == NO_MATCH) {
+                return new ArrayList<>();
+            }
+            int ageGoe = condition.getAgeGoe() != null ? condition.getAgeGoe() : Integer.MIN_VALUE;
+            int ageLoe = condition.getAgeLoe() != null ? condition.getAgeLoe() : Integer.MAX_VALUE;
+
+            List<MemberTeamDto> result = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                if (ages[i] < ageGoe || ages[i] > ageLoe) continue;
+                if (usernameCode != ANY && usernameCodes[i] != usernameCode) continue;
+                if (teamNameCode != ANY && teamNameCodes[i] != teamNameCode) continue;
+                result.add(toDto(i));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void onInsert(Object entity) {
+        apply(entity);
+    }
+
+    @Override
+    public void onUpdate(Object entity, Object[] oldState, String[] propertyNames) {
+        apply(entity);
+    }
+
+    @Override
+    public void onDelete(Object entity) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            if (entity instanceof Member) {
+                removeMember(((Member) entity).getId());
+            } else if (entity instanceof Team) {
+                removeTeam(((Team) entity).getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 벌크 연산은 바뀐 값을 모르므로 해당 회원들을 다시 읽는다. 없어진 회원(벌크 delete)은 뺀다.
+    @Override
+    public void onBulkChange(Class<?> entityType, Collection<Long> ids) {
+        if (entityType != Member.class || !loaded) {
+            return;
+        }
+        List<Object[]> rows = readOnlyTx.execute(status -> em.createQuery(
+                        "select m.id, m.username, m.age, t.id from Member m left join m.team t where m.id in :ids", Object[].class)
+                .setParameter("ids", ids)
+                .getResultList());
+
+        lock.writeLock().lock();
+        try {
+            Set<Long> removed = new HashSet<>(ids);
+            for (Object[] row : rows) {
+                upsertMember((Long) row[0], (String) row[1], (Integer) row[2], (Long) row[3]);
+                removed.remove((Long) row[0]);
+            }
+            removed.forEach(this::removeMember);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 스냅샷을 읽는 중에 커밋된 변경도 놓치지 않도록 쓰기 락을 잡은 뒤에 loaded 를 확인한다.
+    private void apply(Object entity) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;  // 첫 조회 때 커밋된 상태를 그대로 읽는다.
+            }
+            if (entity instanceof Member) {
+                Member member = (Member) entity;
+                upsertMember(member.getId(), member.getUsername(), member.getAge(), EntityIds.idOf(member.getTeam()));
+            } else if (entity instanceof Team) {
+                Team team = (Team) entity;
+                putTeam(team.getId(), team.getName());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            long started = System.currentTimeMillis();
+            readOnlyTx.executeWithoutResult(status -> {
+                try (Stream<Object[]> teams = em.createQuery("select t.id, t.name from Team t", Object[].class)
+                        .getResultStream();
+                     Stream<Object[]> members = em.createQuery(
+                             "select m.id, m.username, m.age, t.id from Member m left join m.team t order by m.id", Object[].class)
+                             .getResultStream()) {
+                    rebuild(teams.iterator(), members.iterator());
+                }
+            });
+            log.info("member read model loaded: {} members in {} ms", size, System.currentTimeMillis() - started);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // teamRows: (team id, name), memberRows: (member id, username, age, team id)
+    void rebuild(Iterator<Object[]> teamRows, Iterator<Object[]> memberRows) {
+        lock.writeLock().lock();
+        try {
+            size = 0;
+            rowByMemberId.clear();
+            teamNameCodeByTeamId.clear();
+            usernames.clear();
+            teamNames.clear();
+            teamRows.forEachRemaining(row -> putTeam((Long) row[0], (String) row[1]));
+            memberRows.forEachRemaining(row -> upsertMember((Long) row[0], (String) row[1], (Integer) row[2], (Long) row[3]));
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void upsertMember(long memberId, String username, int age, Long teamId) {
+        Integer row = rowByMemberId.get(memberId);
+        if (row == null) {
+            ensureCapacity(size + 1);
+            row = size++;
+            rowByMemberId.put(memberId, row);
+            memberIds[row] = memberId;
+        }
+        ages[row] = age;
+        usernameCodes[row] = usernames.encode(username);
+        teamIds[row] = teamId != null ? teamId : NO_TEAM;
+        teamNameCodes[row] = teamId != null ? teamNameCodeByTeamId.getOrDefault(teamId, NULL_CODE) : NULL_CODE;
+    }
+
+    // 조회 순서(id 순)를 유지하기 위해 뒤쪽 행을 당긴다. 삭제는 드물다고 보고 O(n) 을 감수한다.
+    private void removeMember(long memberId) {
+        Integer row = rowByMemberId.remove(memberId);
+        if (row == null) {
+            return;
+        }
+        int moved = size - row - 1;
+        System.arraycopy(memberIds, row + 1, memberIds, row, moved);
+        System.arraycopy(ages, row + 1, ages, row, moved);
+        System.arraycopy(teamIds, row + 1, teamIds, row, moved);
+        System.arraycopy(usernameCodes, row + 1, usernameCodes, row, moved);
+        System.arraycopy(teamNameCodes, row + 1, teamNameCodes, row, moved);
+        size--;
+        for (int i = row; i < size; i++) {
+            rowByMemberId.put(memberIds[i], i);
+        }
+    }
+
+    private void putTeam(long teamId, String name) {
+        int code = teamNames.encode(name);
+        Integer previous = teamNameCodeByTeamId.put(teamId, code);
+        if (previous != null && previous != code) {  // 팀 이름 변경
+            setTeamNameCode(teamId, code);
+        }
+    }
+
+    private void removeTeam(long teamId) {
+        teamNameCodeByTeamId.remove(teamId);
+        setTeamNameCode(teamId, NULL_CODE);
+    }
+
+    private void setTeamNameCode(long teamId, int code) {
+        for (int i = 0; i < size; i++) {
+            if (teamIds[i] == teamId) {
+                teamNameCodes[i] = code;
+            }
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= memberIds.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, Math.max(1024, memberIds.length + (memberIds.length >> 1)));
+        memberIds = Arrays.copyOf(memberIds, newCapacity);
+        ages = Arrays.copyOf(ages, newCapacity);
+        teamIds = Arrays.copyOf(teamIds, newCapacity);
+        usernameCodes = Arrays.copyOf(usernameCodes, newCapacity);
+        teamNameCodes = Arrays.copyOf(teamNameCodes, newCapacity);
+    }
+
+    private MemberTeamDto toDto(int row) {
+        return new MemberTeamDto(
+                memberIds[row],
+                usernames.decode(usernameCodes[row]),
+                ages[row],
+                teamIds[row] == NO_TEAM ? null : teamIds[row],
+                teamNames.decode(teamNameCodes[row]));
+    }
+
+    // 문자열 <-> int 코드 딕셔너리
+    private static class StringDictionary {
+        private final List<String> values = new ArrayList<>();
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        int encode(String value) {
+            if (value == null) {
+                return NULL_CODE;
+            }
+            return codes.computeIfAbsent(value, v -> {
+                values.add(v);
+                return values.size() - 1;
+            });
+        }
+
+        int find(String value) {
+            Integer code = codes.get(value);
+            return code != null ? code : NO_MATCH;
+        }
+
+        String decode(int code) {
+            return code == NULL_CODE ? null : values.get(code);
+        }
+
+        void clear() {
+            values.clear();
+            codes.clear();
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package study.KYHquerydsl.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
 import study.KYHquerydsl.entity.Member;
 
 import java.util.List;
 
-public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom {
+public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom, MemberRepositoryAsync, MemberBulkRepository {
+    @Transactional(readOnly = true)
     List<Member> findByUsername(String username);
 }
\ No newline at end of file
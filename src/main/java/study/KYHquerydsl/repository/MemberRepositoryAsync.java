@@ -0,0 +1,20 @@
+package study.KYHquerydsl.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.KYHquerydsl.dto.CursorSlice;
+import study.KYHquerydsl.dto.MemberCursor;
+import study.KYHquerydsl.dto.MemberSearchCondition;
+import study.KYHquerydsl.dto.MemberTeamDto;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// `MemberRepositoryCustom` 의 비동기 버전. 각 조회는 `MemberQueryExecutor` 에서 별도 트랜잭션으로 실행된다.
+// 여러 조회를 동시에 시작해두고 한 번에 기다릴 때 사용한다. (예: CompletableFuture.allOf(...).join())
+public interface MemberRepositoryAsync {
+    CompletableFuture<List<MemberTeamDto>> searchAsync(MemberSearchCondition condition);
+    CompletableFuture<Page<MemberTeamDto>> searchPageSimpleAsync(MemberSearchCondition condition, Pageable pageable);
+    CompletableFuture<Page<MemberTeamDto>> searchPageComplexAsync(MemberSearchCondition condition, Pageable pageable);
+    CompletableFuture<CursorSlice<MemberTeamDto>> searchByCursorAsync(MemberSearchCondition condition, MemberCursor cursor, int size);
+}
@@ -0,0 +1,41 @@
+package study.KYHquerydsl.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.KYHquerydsl.dto.CursorSlice;
+import study.KYHquerydsl.dto.MemberCursor;
+import study.KYHquerydsl.dto.MemberSearchCondition;
+import study.KYHquerydsl.dto.MemberTeamDto;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// `사용자 정의 인터페이스 명 + Impl` 방식 (MemberRepositoryImpl 주석 참고)
+// 실제 조회는 MemberRepositoryImpl 에 맡기고, 실행 스레드와 트랜잭션만 바꾼다.
+@RequiredArgsConstructor
+public class MemberRepositoryAsyncImpl implements MemberRepositoryAsync {
+
+    private final MemberRepositoryImpl memberRepositoryImpl;
+    private final MemberQueryExecutor queryExecutor;
+
+    @Override
+    public CompletableFuture<List<MemberTeamDto>> searchAsync(MemberSearchCondition condition) {
+        return queryExecutor.supplyAsync(() -> memberRepositoryImpl.search(condition));
+    }
+
+    @Override
+    public CompletableFuture<Page<MemberTeamDto>> searchPageSimpleAsync(MemberSearchCondition condition, Pageable pageable) {
+        return queryExecutor.supplyAsync(() -> memberRepositoryImpl.searchPageSimple(condition, pageable));
+    }
+
+    @Override
+    public CompletableFuture<Page<MemberTeamDto>> searchPageComplexAsync(MemberSearchCondition condition, Pageable pageable) {
+        return queryExecutor.supplyAsync(() -> memberRepositoryImpl.searchPageComplex(condition, pageable));
+    }
+
+    @Override
+    public CompletableFuture<CursorSlice<MemberTeamDto>> searchByCursorAsync(MemberSearchCondition condition, MemberCursor cursor, int size) {
+        return queryExecutor.supplyAsync(() -> memberRepositoryImpl.searchByCursor(condition, cursor, size));
+    }
+}
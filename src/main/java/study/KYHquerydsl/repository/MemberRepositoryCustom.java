@@ -2,6 +2,9 @@ package study.KYHquerydsl.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import study.KYHquerydsl.dto.CursorSlice;
+import study.KYHquerydsl.dto.EstimatedPage;
+import study.KYHquerydsl.dto.MemberCursor;
 import study.KYHquerydsl.dto.MemberSearchCondition;
 import study.KYHquerydsl.dto.MemberTeamDto;
 
@@ -11,4 +14,6 @@ public interface MemberRepositoryCustom {
     List<MemberTeamDto> search(MemberSearchCondition condition);
     Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
     Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
+    EstimatedPage<MemberTeamDto> searchPageEstimated(MemberSearchCondition condition, Pageable pageable);
+    CursorSlice<MemberTeamDto> searchByCursor(MemberSearchCondition condition, MemberCursor cursor, int size);
 }
\ No newline at end of file
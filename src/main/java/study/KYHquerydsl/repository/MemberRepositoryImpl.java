@@ -1,19 +1,33 @@
 package study.KYHquerydsl.repository;
 
 import com.querydsl.core.QueryResults;
+import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import study.KYHquerydsl.dto.CursorSlice;
+import study.KYHquerydsl.dto.EstimatedPage;
+import study.KYHquerydsl.dto.MemberCursor;
 import study.KYHquerydsl.dto.MemberSearchCondition;
 import study.KYHquerydsl.dto.MemberTeamDto;
 import study.KYHquerydsl.dto.QMemberTeamDto;
+import study.KYHquerydsl.metrics.CountQueryMetrics;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.springframework.util.StringUtils.hasText;
 import static study.KYHquerydsl.entity.QMember.member;
@@ -30,12 +44,33 @@ import static study.KYHquerydsl.entity.QTeam.team;
 //참고: 항상 사용자 정의 리포지토리가 필요한 것은 아니다. 그냥 임의의 리포지토리를 만들어도 된다.
 //      예를들어 MemberQueryRepository를 인터페이스가 아닌 클래스로 만들고 스프링 빈으로 등록해서(@Repository)
 //      그냥 직접 사용해도 된다. 물론 이 경우 스프링 데이터 JPA와는 아무런 관계 없이 별도로 동작한다.
+@Transactional(readOnly = true)  // 조회 전용. datasource.routing.enabled 면 읽기 전용 트랜잭션은 replica 로 간다.
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
+    private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final MemberCountCache countCache;
+    private final MemberSearchQueryTemplates queryTemplates;
+    private final CountQueryMetrics countQueryMetrics;
+    private final ParallelCountRunner parallelCountRunner;
+    private final MemberCountEstimator countEstimator;
+    private final long exactCountThreshold;
+    private final boolean deferredJoin;
 
-    public MemberRepositoryImpl(EntityManager em) {
+    public MemberRepositoryImpl(EntityManager em, MemberCountCache countCache, MemberSearchQueryTemplates queryTemplates,
+                                CountQueryMetrics countQueryMetrics, ParallelCountRunner parallelCountRunner,
+                                MemberCountEstimator countEstimator,
+                                @Value("${member.search.estimate.exact-threshold:10000}") long exactCountThreshold,
+                                @Value("${member.search.deferred-join:false}") boolean deferredJoin) {
+        this.em = em;
         this.queryFactory = new JPAQueryFactory(em);
+        this.countCache = countCache;
+        this.queryTemplates = queryTemplates;
+        this.countQueryMetrics = countQueryMetrics;
+        this.parallelCountRunner = parallelCountRunner;
+        this.countEstimator = countEstimator;
+        this.exactCountThreshold = exactCountThreshold;
+        this.deferredJoin = deferredJoin;
     }
 
     @Override
@@ -44,6 +79,9 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
     public List<Member> search(MemberSearchCondition condition) {
 */
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        if (queryTemplates.isEnabled()) {  // 미리 만들어 둔 JPQL 사용 (MemberSearchQueryTemplates 참고)
+            return MemberSearchQueryTemplates.toDtos(queryTemplates.content(em, condition).getResultList());
+        }
         return queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
@@ -72,6 +110,11 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
     @Override
     public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
+        if (deferredJoin) {
+            long total = countQuery(condition).fetchOne();
+            List<MemberTeamDto> content = total > pageable.getOffset() ? deferredJoinContent(condition, pageable.getOffset(), pageable.getPageSize()) : new ArrayList<>();
+            return new PageImpl<>(content, pageable, total);
+        }
         QueryResults<MemberTeamDto> results = queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
@@ -106,6 +149,17 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
     @Override
     public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+        if (parallelCountRunner.isEnabled()) {  // query-templates, deferred-join 과 함께 켜도 컨텐츠는 그 방식으로 읽는다.
+            return searchPageComplexParallel(condition, pageable);
+        }
+        if (queryTemplates.isEnabled()) {
+            return searchPageComplexByTemplate(condition, pageable);
+        }
+        if (deferredJoin) {
+            List<MemberTeamDto> content = deferredJoinContent(condition, pageable.getOffset(), pageable.getPageSize());
+            return countQueryMetrics.getPage("searchPageComplex", content, pageable,
+                    query -> countCache.get(condition, query), countQuery(condition)::fetchOne);
+        }
         List<MemberTeamDto> content = queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
@@ -148,7 +202,62 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
         // count 쿼리가 생략 가능한 경우 생략해서 처리
         //  - 페이지 시작이면서 컨텐츠 사이즈가 페이지 사이즈보다 작을 때
         //  - 마지막 페이지 일 때 (offset + 컨텐츠 사이즈를 더해서 전체 사이즈 구함)
-        JPAQuery<Long> countQuery = queryFactory
+        JPAQuery<Long> countQuery = countQuery(condition);
+        // 같은 검색조건의 count 는 캐시에서 재사용 (MemberCountCache 참고)
+        return countQueryMetrics.getPage("searchPageComplex", content, pageable,
+                query -> countCache.get(condition, query), countQuery::fetchOne);
+
+    }
+
+    // 지연 조인(late row lookup): offset 만큼 읽고 버리는 구간에서는 인덱스만으로 읽을 수 있는 member_id 만 고르고,
+    // 실제 페이지에 해당하는 id 들만 team 과 조인해서 DTO 로 가져온다. (member.search.deferred-join)
+    // offset 페이징 결과가 매번 같도록 member_id 순으로 정렬한다.
+    private List<MemberTeamDto> deferredJoinContent(MemberSearchCondition condition, long offset, int limit) {
+        List<Long> ids = queryFactory
+                .select(member.id)
+                .from(member)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .orderBy(member.id.asc())
+                .offset(offset)
+                .limit(limit)
+                .fetch();
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<MemberTeamDto> rows = queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")
+                ))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(member.id.in(ids))
+                .fetch();
+
+        // in 절은 순서를 보장하지 않으므로 첫 번째 쿼리의 순서로 되돌린다.
+        Map<Long, MemberTeamDto> byId = new HashMap<>(rows.size() * 2);
+        rows.forEach(dto -> byId.put(dto.getMemberId(), dto));
+        List<MemberTeamDto> content = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            MemberTeamDto dto = byId.get(id);
+            if (dto != null) {  // 두 쿼리 사이에 삭제된 회원
+                content.add(dto);
+            }
+        }
+        return content;
+    }
+
+    private JPAQuery<Long> countQuery(MemberSearchCondition condition) {
+        return queryFactory
                 .select(member.count())  //select count(member.id)
                 .from(member)
                 .leftJoin(member.team, team)
@@ -158,9 +267,195 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 );
-        return PageableExecutionUtils.getPage(content, pageable,
-                () -> countQuery.fetchOne());
+    }
+
+    // count 쿼리를 별도 트랜잭션에서 먼저 시작해두고 컨텐츠 쿼리를 실행한다. 응답 시간 = max(컨텐츠, count)
+    // 컨텐츠는 설정된 방식(query-templates, deferred-join, 기본) 그대로 읽고, 다음 페이지 여부를 알도록 한 건 더 읽는다.
+    // count 가 timeout 안에 끝나지 않으면 취소하고, 추정값(없으면 확인된 만큼)을 total 로 쓰되 totalExact=false 로 알린다.
+    private Page<MemberTeamDto> searchPageComplexParallel(MemberSearchCondition condition, Pageable pageable) {
+        int timeoutMillis = (int) parallelCountRunner.getTimeout().toMillis();
+        AtomicBoolean executed = new AtomicBoolean();  // count 스레드에서 실제로 count 쿼리를 실행했는지 (캐시 히트면 false)
+        Future<Long> countFuture = parallelCountRunner.submit(() -> countCache.get(condition, () -> {
+            executed.set(true);
+            return queryTemplates.isEnabled()
+                    ? queryTemplates.count(em, condition).setHint(QueryHints.TIMEOUT_JPA, timeoutMillis).getSingleResult()
+                    : countQuery(condition).setHint(QueryHints.TIMEOUT_JPA, timeoutMillis).fetchOne();
+        }));
+
+        List<MemberTeamDto> content = pageContent(condition, pageable.getOffset(), pageable.getPageSize() + 1);
+        boolean hasMore = content.size() > pageable.getPageSize();
+        if (hasMore) {
+            content = new ArrayList<>(content.subList(0, pageable.getPageSize()));
+        }
+
+        if (countFuture == null) {  // count 스레드풀이 가득 참
+            return countQueryMetrics.getPage("searchPageComplex", content, pageable,
+                    query -> countCache.get(condition, query), () -> queryTemplates.isEnabled()
+                            ? queryTemplates.count(em, condition).getSingleResult()
+                            : countQuery(condition).fetchOne());
+        }
+        boolean[] timedOut = {false};
+        long lowerBound = pageable.getOffset() + content.size() + (hasMore ? 1 : 0);
+        Page<MemberTeamDto> page = PageableExecutionUtils.getPage(content, pageable, () -> {
+            OptionalLong total = parallelCountRunner.await(countFuture);
+            if (total.isPresent()) {
+                return total.getAsLong();
+            }
+            timedOut[0] = true;
+            return Math.max(countEstimator.estimate(condition).orElse(lowerBound), lowerBound);
+        });
+        countFuture.cancel(true);  // count 가 필요 없었던 경우 (이미 끝났으면 아무 일도 없음)
+        // 필요 없었더라도 이미 시작된 count 는 DB 에서 실행된 것으로 센다.
+        countQueryMetrics.record("searchPageComplex", !executed.get());
+        if (timedOut[0]) {
+            return new EstimatedPage<>(page.getContent(), pageable, page.getTotalElements(), false);
+        }
+        return page;
+    }
+
+    private List<MemberTeamDto> pageContent(MemberSearchCondition condition, long offset, int limit) {
+        if (queryTemplates.isEnabled()) {
+            return MemberSearchQueryTemplates.toDtos(queryTemplates.content(em, condition)
+                    .setFirstResult((int) offset)
+                    .setMaxResults(limit)
+                    .getResultList());
+        }
+        if (deferredJoin) {
+            return deferredJoinContent(condition, offset, limit);
+        }
+        return queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")
+                ))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .offset(offset)
+                .limit(limit)
+                .fetch();
+    }
+
+    // 넓은 조건에서는 count 쿼리가 페이지에서 가장 비싸다. 화면에는 "약 120만 건" 이면 충분하므로
+    // 카운터로 추정한 건수(MemberCountEstimator)가 exact-threshold 이상이면 count 쿼리 없이 추정값을 total 로 쓴다.
+    // 추정값이 작으면 정확히 세도 싸므로 count 쿼리를 실행한다.
+    @Override
+    public EstimatedPage<MemberTeamDto> searchPageEstimated(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberTeamDto> content = queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")
+                ))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize() + 1)  // 한 건 더 읽어서 뒤에 더 있는지 정확히 안다
+                .fetch();
+
+        boolean hasMore = content.size() > pageable.getPageSize();
+        if (hasMore) {
+            content = new ArrayList<>(content.subList(0, pageable.getPageSize()));
+        }
+
+        // 뒤에 더 없으면 컨텐츠만으로 정확한 total 을 안다. (범위를 벗어난 빈 페이지는 제외)
+        if (!hasMore && (pageable.getOffset() == 0 || !content.isEmpty())) {
+            countQueryMetrics.record("searchPageEstimated", true);
+            return new EstimatedPage<>(content, pageable, pageable.getOffset() + content.size(), true);
+        }
+
+        // 범위를 벗어난 빈 페이지는 추정하지 않고 정확히 센다. (추정치가 offset 보다 크면 페이지가 있는 것처럼 보인다)
+        OptionalLong estimate = hasMore ? countEstimator.estimate(condition) : OptionalLong.empty();
+        if (estimate.isPresent() && estimate.getAsLong() >= exactCountThreshold) {
+            countQueryMetrics.record("searchPageEstimated", true);
+            long lowerBound = pageable.getOffset() + content.size() + 1;  // 뒤에 최소 한 건은 더 있다
+            return new EstimatedPage<>(content, pageable, Math.max(estimate.getAsLong(), lowerBound), false);
+        }
+
+        boolean[] executed = {false};
+        long total = countCache.get(condition, () -> {
+            executed[0] = true;
+            return countQuery(condition).fetchOne();
+        });
+        countQueryMetrics.record("searchPageEstimated", !executed[0]);
+        return new EstimatedPage<>(content, pageable, total, true);
+    }
+
+    private Page<MemberTeamDto> searchPageComplexByTemplate(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberTeamDto> content = MemberSearchQueryTemplates.toDtos(queryTemplates.content(em, condition)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList());
+        return countQueryMetrics.getPage("searchPageComplex", content, pageable,
+                query -> countCache.get(condition, query), () -> queryTemplates.count(em, condition).getSingleResult());
+    }
+
+    // offset 대신 마지막으로 내려준 (정렬 키, member_id) 다음부터 읽는다(키셋 페이징).
+    // 앞 페이지를 읽고 버리는 비용이 없으므로 N번째 페이지도 첫 페이지와 같은 비용으로 조회된다.
+    @Override
+    public CursorSlice<MemberTeamDto> searchByCursor(MemberSearchCondition condition, MemberCursor cursor, int size) {
+        List<MemberTeamDto> content = queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")
+                ))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()),
+                        cursorAfter(cursor)
+                )
+                .orderBy(cursorOrder(cursor))
+                .limit(size + 1)  // 한 건 더 읽어서 다음 페이지 존재 여부를 판단 (count 쿼리 불필요)
+                .fetch();
+
+        boolean hasNext = content.size() > size;
+        if (hasNext) {
+            content = new ArrayList<>(content.subList(0, size));
+        }
+        String nextCursor = hasNext ? cursor.next(content.get(content.size() - 1)).encode() : null;
+        return new CursorSlice<>(content, nextCursor, hasNext);
+    }
+
+    private BooleanExpression cursorAfter(MemberCursor cursor) {
+        if (cursor.isFirst()) {
+            return null;
+        }
+        if (cursor.getSortKey() == MemberCursor.SortKey.AGE) {
+            int lastAge = cursor.getLastSortValue().intValue();
+            return member.age.gt(lastAge)
+                    .or(member.age.eq(lastAge).and(member.id.gt(cursor.getLastMemberId())));
+        }
+        return member.id.gt(cursor.getLastMemberId());
+    }
 
+    private OrderSpecifier<?>[] cursorOrder(MemberCursor cursor) {
+        if (cursor.getSortKey() == MemberCursor.SortKey.AGE) {
+            return new OrderSpecifier<?>[]{member.age.asc(), member.id.asc()};
+        }
+        return new OrderSpecifier<?>[]{member.id.asc()};
     }
 
     // 반환타입을 `Predicate` 보다 `BooleanExpression` 으로 하는 것이 향후 확장성이 좋다. composition이 가능하다.(결합) (`QuerydslBasicTest`의 `allEq` 참고)
@@ -0,0 +1,101 @@
+package study.KYHquerydsl.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.KYHquerydsl.dto.MemberSearchCondition;
+import study.KYHquerydsl.dto.MemberTeamDto;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * 검색조건에 값이 있는 필드 조합(username, teamName, ageGoe, ageLoe → 16가지)별로 JPQL 을 미리 만들어 둔다.
+ * 요청마다 Querydsl 표현식 트리를 만들고 JPQL 로 직렬화하는 대신 파라미터만 바인딩한다.
+ * JPQL 문자열이 모양별로 항상 같으므로 Hibernate 쿼리 플랜 캐시도 모양별로 한 번만 만들어진다.
+ * 조건은 `usernameEq`, `teamNameEq`, `ageGoe`, `ageLoe` 와 같다. (공백 문자열은 조건 없음)
+ */
+@Component
+public class MemberSearchQueryTemplates {
+
+    static final int USERNAME = 1;
+    static final int TEAM_NAME = 1 << 1;
+    static final int AGE_GOE = 1 << 2;
+    static final int AGE_LOE = 1 << 3;
+    static final int SHAPES = 1 << 4;
+
+    private static final String FROM = " from Member m left join m.team t";
+
+    private final boolean enabled;
+    private final String[] contentJpql = new String[SHAPES];
+    private final String[] countJpql = new String[SHAPES];
+
+    public MemberSearchQueryTemplates(@Value("${member.search.query-templates:false}") boolean enabled) {
+        this.enabled = enabled;
+        for (int shape = 0; shape < SHAPES; shape++) {
+            String where = where(shape);
+            contentJpql[shape] = "select m.id, m.username, m.age, t.id, t.name" + FROM + where;
+            countJpql[shape] = "select count(m.id)" + FROM + where;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public static int shapeOf(MemberSearchCondition condition) {
+        int shape = 0;
+        if (hasText(condition.getUsername())) shape |= USERNAME;
+        if (hasText(condition.getTeamName())) shape |= TEAM_NAME;
+        if (condition.getAgeGoe() != null) shape |= AGE_GOE;
+        if (condition.getAgeLoe() != null) shape |= AGE_LOE;
+        return shape;
+    }
+
+    public String contentJpql(MemberSearchCondition condition) {
+        return contentJpql[shapeOf(condition)];
+    }
+
+    public String countJpql(MemberSearchCondition condition) {
+        return countJpql[shapeOf(condition)];
+    }
+
+    // offset/limit 은 호출하는 쪽에서 setFirstResult/setMaxResults 로 건다.
+    public TypedQuery<Object[]> content(EntityManager em, MemberSearchCondition condition) {
+        int shape = shapeOf(condition);
+        return bind(em.createQuery(contentJpql[shape], Object[].class), shape, condition);
+    }
+
+    public TypedQuery<Long> count(EntityManager em, MemberSearchCondition condition) {
+        int shape = shapeOf(condition);
+        return bind(em.createQuery(countJpql[shape], Long.class), shape, condition);
+    }
+
+    public static List<MemberTeamDto> toDtos(List<Object[]> rows) {
+        List<MemberTeamDto> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            result.add(new MemberTeamDto((Long) row[0], (String) row[1], (Integer) row[2], (Long) row[3], (String) row[4]));
+        }
+        return result;
+    }
+
+    private static String where(int shape) {
+        List<String> predicates = new ArrayList<>(4);
+        if ((shape & USERNAME) != 0) predicates.add("m.username = :username");
+        if ((shape & TEAM_NAME) != 0) predicates.add("m.team.name = :teamName");  // teamNameEq 와 같은 경로
+        if ((shape & AGE_GOE) != 0) predicates.add("m.age >= :ageGoe");
+        if ((shape & AGE_LOE) != 0) predicates.add("m.age <= :ageLoe");
+        return predicates.isEmpty() ? "" : " where " + String.join(" and ", predicates);
+    }
+
+    private static <T> TypedQuery<T> bind(TypedQuery<T> query, int shape, MemberSearchCondition condition) {
+        if ((shape & USERNAME) != 0) query.setParameter("username", condition.getUsername());
+        if ((shape & TEAM_NAME) != 0) query.setParameter("teamName", condition.getTeamName());
+        if ((shape & AGE_GOE) != 0) query.setParameter("ageGoe", condition.getAgeGoe());
+        if ((shape & AGE_LOE) != 0) query.setParameter("ageLoe", condition.getAgeLoe());
+        return query;
+    }
+}
@@ -0,0 +1,98 @@
+package study.KYHquerydsl.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+
+/**
+ * `searchPageComplex` 의 count 쿼리를 컨텐츠 쿼리와 동시에 실행한다. (`member.search.parallel-count.enabled`)
+ * count 는 크기가 제한된 전용 스레드풀에서 별도의 읽기 전용 트랜잭션(= 별도의 EntityManager, 커넥션)으로 돈다.
+ * 호출한 쪽 트랜잭션의 커밋되지 않은 변경은 보이지 않으므로, 쓰기와 같은 트랜잭션에서 조회하는 경우에는 켜지 않는다.
+ */
+@Slf4j
+@Component
+public class ParallelCountRunner {
+
+    private final boolean enabled;
+    private final Duration timeout;
+    private final ThreadPoolTaskExecutor executor;
+    private final TransactionTemplate readOnlyTx;
+
+    public ParallelCountRunner(PlatformTransactionManager transactionManager,
+                               @Value("${member.search.parallel-count.enabled:false}") boolean enabled,
+                               @Value("${member.search.parallel-count.pool-size:4}") int poolSize,
+                               @Value("${member.search.parallel-count.queue-capacity:100}") int queueCapacity,
+                               @Value("${member.search.parallel-count.timeout:2s}") Duration timeout) {
+        this.enabled = enabled;
+        this.timeout = timeout;
+
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("count-query-");
+        executor.initialize();
+
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        readOnlyTx.setReadOnly(true);
+        readOnlyTx.setTimeout((int) Math.max(1, timeout.getSeconds()));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    // 큐가 가득 차면 null (호출한 쪽에서 순차 실행)
+    public Future<Long> submit(LongSupplier countQuery) {
+        try {
+            return executor.submit(() -> readOnlyTx.execute(status -> countQuery.getAsLong()));
+        } catch (TaskRejectedException e) {
+            log.debug("count query executor is full, falling back to sequential count");
+            return null;
+        }
+    }
+
+    // timeout 안에 끝나지 않으면 취소하고 empty
+    public OptionalLong await(Future<Long> future) {
+        try {
+            return OptionalLong.of(future.get(timeout.toMillis(), TimeUnit.MILLISECONDS));
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("count query timed out after {} ms", timeout.toMillis());
+            return OptionalLong.empty();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return OptionalLong.empty();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,412 @@
+package study.KYHquerydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.KYHquerydsl.dto.TeamStatsDto;
+import study.KYHquerydsl.entity.Member;
+import study.KYHquerydsl.entity.Team;
+import study.KYHquerydsl.listener.EntityChangeHandler;
+import study.KYHquerydsl.listener.EntityIds;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import static study.KYHquerydsl.entity.QMember.member;
+import static study.KYHquerydsl.entity.QTeam.team;
+
+/**
+ * 팀별 회원 수, 나이 합/평균/최소/최대를 매번 GROUP BY 하지 않고 커밋된 변경 이벤트로 갱신해 둔다. (`/v1/teams/stats`)
+ * 회원 추가/삭제, 나이 변경, changeTeam(팀 이동)은 onUpdate 의 변경 전 값(oldState)으로 빼고 더한다.
+ * 삭제 후에도 최소/최대를 알 수 있도록 팀마다 나이별 인원(TreeMap)을 들고 있다. (팀당 서로 다른 나이 수만큼)
+ * 주기적으로(team.stats.reconcile-interval) 실제 GROUP BY 결과와 비교하고, 다르면 경고 후 다시 읽는다.
+ * 다시 읽기와 비교 쿼리는 락 밖에서 실행하고, 교체/비교할 때만 락을 잡는다. (그동안 커밋 이벤트와 조회가 기다리지 않는다)
+ * 다시 읽는 동안 들어온 이벤트는 새로 읽은 값에 다시 반영하고, 비교하는 동안 이벤트로 바뀐 팀은 이번 비교에서 뺀다.
+ * 다시 읽기 쿼리 전에 커밋됐는데 이벤트는 beginReload 뒤에 들어온 변경은 두 번 반영된다. (어느 쪽인지 구분할 수 없다)
+ * 그래서 다시 반영한 팀만 교체 후에 한 번 더 읽어서 덮어쓴다. 그 쿼리 중에 또 바뀐 팀이 있으면 다음 조회 때 전체를 다시 읽는다.
+ * (그 쿼리에도 같은 경쟁이 있으므로 드물게 남는 차이는 reconcile 이 잡는다)
+ */
+@Slf4j
+@Component
+public class TeamStatistics implements EntityChangeHandler {
+
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate readOnlyTx;
+    private final MeterRegistry meterRegistry;
+
+    // 아래 상태는 모두 this 로 동기화한다.
+    private Map<Long, TeamAges> byTeamId;  // null 이면 아직 읽지 않음
+    private boolean stale;  // 다음 조회 때 다시 읽는다
+    private long generation;  // 다시 읽을 때마다 증가
+    private List<Consumer<Map<Long, TeamAges>>> pending;  // 다시 읽는 중이면 그동안 들어온 이벤트, 아니면 null
+    private Set<Long> replayed;  // 다시 읽는 중이면 그동안 이벤트로 바뀐 팀, 아니면 null
+    private Set<Long> rechecking;  // 다시 반영한 팀을 읽는 중이면 그동안 이벤트로 바뀐 팀, 아니면 null
+    private Set<Long> touched;  // 비교 쿼리 중이면 그동안 이벤트로 바뀐 팀, 아니면 null
+
+    public TeamStatistics(JPAQueryFactory queryFactory, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.queryFactory = queryFactory;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.readOnlyTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean afterCommit() {
+        return true;
+    }
+
+    // O(팀 수)
+    public List<TeamStatsDto> findAll() {
+        ensureLoaded();
+        List<TeamStatsDto> result;
+        synchronized (this) {
+            result = new ArrayList<>(byTeamId.size());
+            byTeamId.forEach((teamId, ages) -> result.add(ages.toDto(teamId)));
+        }
+        result.sort(Comparator.comparing(TeamStatsDto::getTeamName, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(TeamStatsDto::getTeamId));
+        return result;
+    }
+
+    // 커밋 후에 호출되므로 엔티티가 아니라 이벤트 시점 값(state)을 읽는다. (한 트랜잭션에서 여러 번 flush 된 경우)
+    @Override
+    public void onInsert(Object entity, Object[] state, String[] propertyNames) {
+        if (entity instanceof Member) {
+            Long teamId = EntityIds.idOf(EntityIds.stateOf(state, propertyNames, "team"));
+            int age = (Integer) EntityIds.stateOf(state, propertyNames, "age");
+            apply(teamId, teams -> add(teams, teamId, age, 1));
+        } else if (entity instanceof Team) {
+            applyName(((Team) entity).getId(), (String) EntityIds.stateOf(state, propertyNames, "name"));
+        }
+    }
+
+    @Override
+    public void onUpdate(Object entity, Object[] oldState, Object[] state, String[] propertyNames) {
+        if (entity instanceof Member) {
+            if (oldState == null) {  // 변경 전 값을 모르면 다시 읽는다.
+                invalidate();
+                return;
+            }
+            Long oldTeamId = EntityIds.idOf(EntityIds.stateOf(oldState, propertyNames, "team"));
+            Integer oldAge = (Integer) EntityIds.stateOf(oldState, propertyNames, "age");
+            Long teamId = EntityIds.idOf(EntityIds.stateOf(state, propertyNames, "team"));
+            int age = (Integer) EntityIds.stateOf(state, propertyNames, "age");
+            apply(oldTeamId, teams -> add(teams, oldTeamId, oldAge, -1));
+            apply(teamId, teams -> add(teams, teamId, age, 1));
+        } else if (entity instanceof Team) {
+            applyName(((Team) entity).getId(), (String) EntityIds.stateOf(state, propertyNames, "name"));
+        }
+    }
+
+    @Override
+    public void onDelete(Object entity, Object[] deletedState, String[] propertyNames) {
+        if (entity instanceof Member) {
+            Long teamId = EntityIds.idOf(EntityIds.stateOf(deletedState, propertyNames, "team"));
+            int age = (Integer) EntityIds.stateOf(deletedState, propertyNames, "age");
+            apply(teamId, teams -> add(teams, teamId, age, -1));
+        } else if (entity instanceof Team) {
+            Long teamId = ((Team) entity).getId();
+            apply(teamId, teams -> teams.remove(teamId));
+        }
+    }
+
+    // 벌크 연산은 바뀐 값을 모르므로 다음 조회 때 다시 읽는다.
+    @Override
+    public void onBulkChange(Class<?> entityType, Collection<Long> ids) {
+        invalidate();
+    }
+
+    private synchronized void invalidate() {
+        stale = true;
+    }
+
+    private void applyName(Long teamId, String name) {
+        apply(teamId, teams -> teams.computeIfAbsent(teamId, id -> new TeamAges()).name = name);
+    }
+
+    // 이벤트 시점 값으로 만든 변경을 지금 값에 반영한다. 다시 읽는 중이면 새로 읽은 값에도 반영하도록 남겨둔다.
+    // 아직 읽지 않았으면 버린다. (처음 읽을 때 커밋된 상태를 그대로 읽는다)
+    private synchronized void apply(Long teamId, Consumer<Map<Long, TeamAges>> change) {
+        if (byTeamId != null) {
+            change.accept(byTeamId);
+        }
+        if (pending != null) {
+            pending.add(change);
+        }
+        if (teamId == null) {
+            return;
+        }
+        if (replayed != null) {
+            replayed.add(teamId);
+        }
+        if (rechecking != null) {
+            rechecking.add(teamId);
+        }
+        if (touched != null) {
+            touched.add(teamId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${team.stats.reconcile-interval:10m}", initialDelayString = "${team.stats.reconcile-interval:10m}")
+    public void reconcile() {
+        long startedGeneration;
+        synchronized (this) {
+            if (byTeamId == null || stale || touched != null) {
+                return;  // 아직 아무도 조회하지 않았거나 어차피 다시 읽을 거면 비교할 것도 없다.
+            }
+            startedGeneration = generation;
+            touched = new HashSet<>();
+        }
+        List<Object[]> actual = new ArrayList<>();
+        try {
+            readOnlyTx.executeWithoutResult(status -> queryFactory
+                    .select(team.id, member.count(), member.age.sum(), member.age.min(), member.age.max())
+                    .from(member)
+                    .join(member.team, team)
+                    .groupBy(team.id)
+                    .fetch()
+                    .forEach(row -> actual.add(row.toArray())));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                touched = null;
+            }
+            throw e;
+        }
+        int mismatches;
+        synchronized (this) {
+            if (generation != startedGeneration) {  // 비교하는 동안 다시 읽었다.
+                touched = null;
+                return;
+            }
+            mismatches = reconcile(actual.iterator());
+            touched = null;
+            if (mismatches > 0) {
+                stale = true;
+            }
+        }
+        if (mismatches > 0) {
+            meterRegistry.counter("team.stats.reconcile.mismatch").increment(mismatches);
+        }
+    }
+
+    // rows: (team id, count, age sum, age min, age max). 다른 팀 수를 반환한다. 비교 쿼리 중에 바뀐 팀은 세지 않는다.
+    synchronized int reconcile(Iterator<Object[]> rows) {
+        Map<Long, TeamStatsDto> expected = new HashMap<>();
+        byTeamId.forEach((teamId, ages) -> expected.put(teamId, ages.toDto(teamId)));
+        if (touched != null) {
+            expected.keySet().removeAll(touched);
+        }
+
+        int mismatches = 0;
+        while (rows.hasNext()) {
+            Object[] row = rows.next();
+            if (touched != null && touched.contains((Long) row[0])) {
+                continue;
+            }
+            TeamStatsDto stats = expected.remove((Long) row[0]);
+            long count = (Long) row[1];
+            long ageSum = ((Number) row[2]).longValue();
+            if (stats == null || stats.getCount() != count || stats.getAgeSum() != ageSum
+                    || !Objects.equals(stats.getAgeMin(), row[3]) || !Objects.equals(stats.getAgeMax(), row[4])) {
+                log.warn("team stats mismatch: team {} stored {} actual count={}, sum={}, min={}, max={}",
+                        row[0], stats, count, ageSum, row[3], row[4]);
+                mismatches++;
+            }
+        }
+        for (TeamStatsDto stats : expected.values()) {  // GROUP BY 에 없음 = 회원 없는 팀
+            if (stats.getCount() != 0) {
+                log.warn("team stats mismatch: team {} stored {} actual count=0", stats.getTeamId(), stats);
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+
+    private void ensureLoaded() {
+        synchronized (this) {
+            while (byTeamId == null && pending != null) {  // 다른 스레드가 처음 읽는 중이면 기다린다. (모니터는 놓고 기다림)
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("interrupted while loading team stats", e);
+                }
+            }
+            if (byTeamId != null && (!stale || pending != null)) {  // 다른 스레드가 다시 읽는 중이면 지금 값으로 응답한다.
+                return;
+            }
+            beginReload();
+        }
+        long started = System.currentTimeMillis();
+        List<Object[]> teams = new ArrayList<>();
+        List<Object[]> ageCounts = new ArrayList<>();
+        try {
+            readOnlyTx.executeWithoutResult(status -> {
+                queryFactory.select(team.id, team.name).from(team).fetch()
+                        .forEach(row -> teams.add(row.toArray()));
+                queryFactory.select(member.team.id, member.age, member.count())
+                        .from(member)
+                        .where(member.team.isNotNull())
+                        .groupBy(member.team.id, member.age)
+                        .fetch()
+                        .forEach(row -> ageCounts.add(row.toArray()));
+            });
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pending = null;
+                replayed = null;
+                stale = true;
+                notifyAll();
+            }
+            throw e;
+        }
+        Set<Long> replayedTeams = rebuild(teams.iterator(), ageCounts.iterator());
+        log.info("team stats loaded: {} teams in {} ms", teams.size(), System.currentTimeMillis() - started);
+        if (!replayedTeams.isEmpty()) {
+            recheck(replayedTeams);
+        }
+    }
+
+    // 다시 읽는 동안 이벤트를 다시 반영한 팀의 나이별 인원을 커밋된 값으로 덮어쓴다. (두 번 반영됐을 수 있다)
+    private void recheck(Set<Long> teamIds) {
+        long startedGeneration;
+        synchronized (this) {
+            if (rechecking != null) {  // 다른 스레드가 확인 중이면 다음 조회 때 다시 읽는다.
+                stale = true;
+                return;
+            }
+            startedGeneration = generation;
+            rechecking = new HashSet<>();
+        }
+        List<Object[]> ageCounts = new ArrayList<>();
+        try {
+            readOnlyTx.executeWithoutResult(status -> queryFactory
+                    .select(member.team.id, member.age, member.count())
+                    .from(member)
+                    .where(member.team.id.in(teamIds))
+                    .groupBy(member.team.id, member.age)
+                    .fetch()
+                    .forEach(row -> ageCounts.add(row.toArray())));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                rechecking = null;
+                stale = true;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            Set<Long> changed = rechecking;
+            rechecking = null;
+            if (generation != startedGeneration) {  // 그 사이 다시 읽었다.
+                return;
+            }
+            Set<Long> unchanged = new HashSet<>(teamIds);
+            unchanged.removeAll(changed);
+            replaceAges(unchanged, ageCounts.iterator());
+            if (unchanged.size() < teamIds.size()) {
+                stale = true;
+            }
+        }
+    }
+
+    // ageCountRows: (team id, age, count). teamIds 의 회원 수/나이를 이 값으로 바꾼다. (행이 없는 팀은 회원 없음)
+    synchronized void replaceAges(Collection<Long> teamIds, Iterator<Object[]> ageCountRows) {
+        Map<Long, TeamAges> loaded = new HashMap<>();
+        ageCountRows.forEachRemaining(row -> {
+            if (teamIds.contains((Long) row[0])) {
+                loaded.computeIfAbsent((Long) row[0], id -> new TeamAges()).add((Integer) row[1], ((Long) row[2]).intValue());
+            }
+        });
+        for (Long teamId : teamIds) {
+            TeamAges current = byTeamId.get(teamId);
+            if (current == null) {
+                continue;  // 그 사이 삭제된 팀
+            }
+            TeamAges actual = loaded.getOrDefault(teamId, new TeamAges());
+            current.count = actual.count;
+            current.sum = actual.sum;
+            current.countByAge.clear();
+            current.countByAge.putAll(actual.countByAge);
+        }
+    }
+
+    // 이제부터 들어오는 이벤트를 모아둔다. 이미 다른 스레드가 읽는 중이면 false
+    synchronized boolean beginReload() {
+        if (pending != null) {
+            return false;
+        }
+        pending = new ArrayList<>();
+        replayed = new HashSet<>();
+        stale = false;
+        return true;
+    }
+
+    // teamRows: (team id, name), ageCountRows: (team id, age, count). 다시 반영한 이벤트의 팀을 반환한다.
+    Set<Long> rebuild(Iterator<Object[]> teamRows, Iterator<Object[]> ageCountRows) {
+        Map<Long, TeamAges> loaded = new HashMap<>();
+        teamRows.forEachRemaining(row -> loaded.computeIfAbsent((Long) row[0], id -> new TeamAges()).name = (String) row[1]);
+        ageCountRows.forEachRemaining(row -> {
+            TeamAges ages = loaded.computeIfAbsent((Long) row[0], id -> new TeamAges());
+            ages.add((Integer) row[1], ((Long) row[2]).intValue());
+        });
+        synchronized (this) {
+            Set<Long> replayedTeams = replayed != null ? replayed : new HashSet<>();
+            if (pending != null) {
+                pending.forEach(change -> change.accept(loaded));
+            } else {  // 직접 다시 읽은 경우 (beginReload 없이)
+                stale = false;
+            }
+            pending = null;
+            replayed = null;
+            byTeamId = loaded;
+            generation++;
+            notifyAll();
+            return replayedTeams;
+        }
+    }
+
+    private static void add(Map<Long, TeamAges> teams, Long teamId, int age, int delta) {
+        if (teamId == null) {
+            return;  // 팀 없는 회원은 통계 대상이 아니다.
+        }
+        teams.computeIfAbsent(teamId, id -> new TeamAges()).add(age, delta);
+    }
+
+    private static class TeamAges {
+        String name;
+        long count;
+        long sum;
+        final TreeMap<Integer, Integer> countByAge = new TreeMap<>();
+
+        void add(int age, int delta) {
+            count += delta;
+            sum += (long) age * delta;
+            int remaining = countByAge.merge(age, delta, Integer::sum);
+            if (remaining <= 0) {
+                countByAge.remove(age);
+            }
+        }
+
+        TeamStatsDto toDto(Long teamId) {
+            return new TeamStatsDto(teamId, name, count, sum,
+                    countByAge.isEmpty() ? null : countByAge.firstKey(),
+                    countByAge.isEmpty() ? null : countByAge.lastKey());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package study.KYHquerydsl.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.KYHquerydsl.dto.MemberSearchCondition;
+import study.KYHquerydsl.dto.MemberTeamDto;
+import study.KYHquerydsl.repository.MemberJpaRepository;
+
+import javax.persistence.EntityManager;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 검색 결과를 NDJSON(한 줄에 JSON 하나)으로 바로 내보낸다.
+ * 결과를 List 로 모으지 않고 스트림에서 한 행씩 써서, 매칭되는 회원 수와 관계없이 힙 사용량이 일정하다.
+ * 같은 방식으로 CBOR/Smile 로도 내보낼 수 있다. (`BinaryFormatConfig` 의 ObjectMapper 사용)
+ */
+@Service
+@RequiredArgsConstructor
+public class MemberExportService {
+
+    private final EntityManager em;
+    private final MemberJpaRepository memberJpaRepository;
+    private final ObjectMapper objectMapper;
+    private final MappingJackson2CborHttpMessageConverter cborConverter;
+    private final MappingJackson2SmileHttpMessageConverter smileConverter;
+
+    @Value("${member.export.fetch-size:500}")
+    private int fetchSize;
+
+    @Value("${member.export.clear-interval:1000}")
+    private int clearInterval;
+
+    @Transactional(readOnly = true)
+    public long exportNdjson(MemberSearchCondition condition, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(MemberTeamDto.class);
+        return export(condition, row -> {
+            out.write(writer.writeValueAsBytes(row));
+            out.write('\n');
+        }, out);
+    }
+
+    // CBOR/Smile: 구분자 없이 값을 이어 쓴다. (SequenceWriter, 받는 쪽은 ObjectReader.readValues 로 하나씩 읽는다.)
+    @Transactional(readOnly = true)
+    public long exportCbor(MemberSearchCondition condition, OutputStream out) throws IOException {
+        return exportSequence(condition, cborConverter.getObjectMapper(), out);
+    }
+
+    @Transactional(readOnly = true)
+    public long exportSmile(MemberSearchCondition condition, OutputStream out) throws IOException {
+        return exportSequence(condition, smileConverter.getObjectMapper(), out);
+    }
+
+    private long exportSequence(MemberSearchCondition condition, ObjectMapper mapper, OutputStream out) throws IOException {
+        ObjectWriter writer = mapper.writerFor(MemberTeamDto.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);  // 응답 스트림은 컨테이너가 닫는다.
+        try (SequenceWriter sequence = writer.writeValues(out)) {
+            return export(condition, sequence::write, sequence);
+        }
+    }
+
+    private long export(MemberSearchCondition condition, RowWriter rowWriter, Flushable flushable) throws IOException {
+        long count = 0;
+        try (Stream<MemberTeamDto> rows = memberJpaRepository.searchStream(condition, fetchSize)) {
+            Iterator<MemberTeamDto> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                rowWriter.write(iterator.next());
+                if (++count % clearInterval == 0) {
+                    em.clear();  // 영속성 컨텍스트에 쌓이는 것이 없도록 주기적으로 비운다.
+                    flushable.flush();
+                }
+            }
+        }
+        flushable.flush();
+        return count;
+    }
+
+    private interface RowWriter {
+        void write(MemberTeamDto row) throws IOException;
+    }
+}
@@ -0,0 +1,77 @@
+package study.KYHquerydsl;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.KYHquerydsl.entity.Member;
+import study.KYHquerydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static study.KYHquerydsl.entity.QMember.member;
+import static study.KYHquerydsl.entity.QTeam.team;
+import static study.KYHquerydsl.support.SqlCountAssertions.assertMaxSqlCount;
+import static study.KYHquerydsl.support.SqlCountAssertions.assertSqlCount;
+
+// `QuerydslBasicTest.fetchJoinNo` / `fetchJoinUse` 를 SQL 수로 검증
+@SpringBootTest
+@Transactional
+class QueryCountTest {
+
+    @Autowired
+    EntityManager em;
+    JPAQueryFactory queryFactory;
+
+    @BeforeEach
+    public void before() {
+        queryFactory = new JPAQueryFactory(em);
+
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.flush();
+        em.clear();
+        em.getEntityManagerFactory().getCache().evictAll();  // 2차 캐시에 남은 팀이 결과에 영향 주지 않도록
+    }
+
+    @Test
+    public void fetchJoinNo() {
+        // member 조회 1번 + 팀마다 1번 (N+1)
+        assertSqlCount(3, () -> {
+            List<Member> members = queryFactory
+                    .selectFrom(member)
+                    .fetch();
+            members.forEach(m -> m.getTeam().getName());
+        });
+    }
+
+    @Test
+    public void fetchJoinUse() {
+        assertSqlCount(1, () -> {
+            List<Member> members = queryFactory
+                    .selectFrom(member)
+                    .join(member.team, team).fetchJoin()
+                    .fetch();
+            members.forEach(m -> m.getTeam().getName());
+        });
+    }
+
+    @Test
+    public void maxSqlCount() {
+        assertMaxSqlCount(1, () -> queryFactory
+                .select(member.username)
+                .from(member)
+                .where(member.age.goe(20))
+                .fetch());
+    }
+
+}
@@ -19,8 +19,10 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Commit;
 import org.springframework.transaction.annotation.Transactional;
 import study.KYHquerydsl.dto.MemberDto;
+import study.KYHquerydsl.dto.MemberDtoProjection;
 import study.KYHquerydsl.dto.QMemberDto;
 import study.KYHquerydsl.dto.UserDto;
+import study.KYHquerydsl.dto.UserDtoProjection;
 import study.KYHquerydsl.entity.Member;
 import study.KYHquerydsl.entity.QMember;
 import study.KYHquerydsl.entity.QTeam;
@@ -614,6 +616,37 @@ public class QuerydslBasicTest {
         }
     }
 
+    @Test
+    // `UserDto`에 `@GenerateProjection` 추가 -> `UserDtoProjection` 생성
+    // 필드 순서대로 위치 매핑이라 `.as("name")` 같은 별칭이 필요 없고, 행마다 리플렉션 없이 setter를 직접 호출함.
+    // 타입이 다른 인자를 넣으면 `QMemberDto`처럼 컴파일 시에 오류를 잡아냄.
+    public void findUserDtoByGeneratedProjection() {
+        QMember memberSub = new QMember("memberSub");
+
+        List<UserDto> result = queryfactory
+                .select(new UserDtoProjection(
+                        member.username,
+                        JPAExpressions
+                                .select(memberSub.age.max())
+                                .from(memberSub)))
+                .from(member)
+                .orderBy(member.username.asc())
+                .fetch();
+
+        assertThat(result).extracting("name")
+                .containsExactly("member1", "member2", "member3", "member4");
+        assertThat(result).extracting("age")
+                .containsOnly(40);
+
+        List<MemberDto> memberDtos = queryfactory
+                .select(new MemberDtoProjection(member.username, member.age))
+                .from(member)
+                .where(member.username.eq("member2"))
+                .fetch();
+        assertThat(memberDtos).extracting("username", "age")
+                .containsExactly(tuple("member2", 20));
+    }
+
     @Test
     public void dynamicQuery_BooleanBuilder() {
         String usernameParam = "member1";
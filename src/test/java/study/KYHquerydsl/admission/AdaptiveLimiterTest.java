@@ -0,0 +1,93 @@
+package study.KYHquerydsl.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.KYHquerydsl.admission.AdaptiveLimiter.Admission.*;
+
+class AdaptiveLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(10);
+
+    @Test
+    public void rejectWhenQueueIsFull() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(endpoint(2, 0));
+
+        assertThat(limiter.acquire()).isEqualTo(IMMEDIATE);
+        assertThat(limiter.acquire()).isEqualTo(IMMEDIATE);
+        assertThat(limiter.acquire()).isEqualTo(REJECTED);
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    public void queuedRequestRunsWhenSlotIsReleased() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(endpoint(1, 1));
+        assertThat(limiter.acquire()).isEqualTo(IMMEDIATE);
+
+        CompletableFuture<AdaptiveLimiter.Admission> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (limiter.getQueued() == 0) {
+            Thread.onSpinWait();
+        }
+        assertThat(limiter.acquire()).isEqualTo(REJECTED);  // 큐(1개)도 가득 참
+
+        limiter.release(FAST);
+        assertThat(waiting.get(1, TimeUnit.SECONDS)).isEqualTo(QUEUED);
+    }
+
+    @Test
+    public void queuedRequestTimesOut() throws Exception {
+        AdmissionProperties.Endpoint endpoint = endpoint(1, 1);
+        endpoint.setQueueTimeout(Duration.ofMillis(10));
+        AdaptiveLimiter limiter = new AdaptiveLimiter(endpoint);
+
+        assertThat(limiter.acquire()).isEqualTo(IMMEDIATE);
+        assertThat(limiter.acquire()).isEqualTo(REJECTED);
+        assertThat(limiter.getQueued()).isZero();
+    }
+
+    @Test
+    public void limitDecreasesOnSlowResponsesAndRecovers() throws Exception {
+        AdmissionProperties.Endpoint endpoint = endpoint(10, 0);
+        endpoint.setMinConcurrent(2);
+        AdaptiveLimiter limiter = new AdaptiveLimiter(endpoint);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire();
+            limiter.release(SLOW);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(2);  // 10 -> 9 -> 8 -> ... -> 최소 2 (minConcurrent)
+
+        // 상한만큼 꽉 채워서 빠르게 처리되면 1씩 늘어난다.
+        for (int i = 0; i < 20; i++) {
+            int limit = limiter.getLimit();
+            for (int j = 0; j < limit; j++) {
+                assertThat(limiter.acquire()).isEqualTo(IMMEDIATE);
+            }
+            for (int j = 0; j < limit; j++) {
+                limiter.release(FAST);
+            }
+        }
+        assertThat(limiter.getLimit()).isEqualTo(10);  // maxConcurrent 를 넘지 않는다
+    }
+
+    private AdmissionProperties.Endpoint endpoint(int maxConcurrent, int queueDepth) {
+        AdmissionProperties.Endpoint endpoint = new AdmissionProperties.Endpoint();
+        endpoint.setMaxConcurrent(maxConcurrent);
+        endpoint.setMinConcurrent(1);
+        endpoint.setQueueDepth(queueDepth);
+        endpoint.setQueueTimeout(Duration.ofSeconds(5));
+        endpoint.setTargetLatency(Duration.ofMillis(100));
+        return endpoint;
+    }
+}
@@ -0,0 +1,109 @@
+package study.KYHquerydsl.controller;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import study.KYHquerydsl.dto.MemberTeamDto;
+import study.KYHquerydsl.entity.Member;
+import study.KYHquerydsl.repository.MemberRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// export 는 별도 스레드(StreamingResponseBody)의 트랜잭션에서 읽으므로 @Transactional 없이 실제로 커밋한다.
+@SpringBootTest
+@AutoConfigureMockMvc
+class BinaryFormatTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @BeforeEach
+    public void before() {
+        memberRepository.save(new Member("member1", 10));
+        memberRepository.save(new Member("member2", 20));
+    }
+
+    @AfterEach
+    public void after() {
+        memberRepository.deleteAll();
+    }
+
+    @Test
+    public void searchAsCbor() throws Exception {
+        byte[] body = mockMvc.perform(get("/v1/members").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<MemberTeamDto> result = List.of(new CBORMapper().readValue(body, MemberTeamDto[].class));
+        assertThat(result).extracting("username").containsExactlyInAnyOrder("member1", "member2");
+    }
+
+    @Test
+    public void searchDefaultsToJson() throws Exception {
+        mockMvc.perform(get("/v1/members").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    public void exportAsCbor() throws Exception {
+        assertThat(export(MediaType.APPLICATION_CBOR, new CBORMapper()))
+                .extracting("username", "age")
+                .containsExactlyInAnyOrder(
+                        tuple("member1", 10),
+                        tuple("member2", 20));
+    }
+
+    @Test
+    public void exportAsSmile() throws Exception {
+        assertThat(export(MediaType.parseMediaType(BinaryFormatConfig.APPLICATION_SMILE_VALUE), new SmileMapper()))
+                .extracting("username")
+                .containsExactlyInAnyOrder("member1", "member2");
+    }
+
+    @Test
+    public void exportDefaultsToNdjson() throws Exception {
+        MvcResult async = mockMvc.perform(get("/v1/members/export").accept(MediaType.ALL))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(async))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON));
+    }
+
+    private List<MemberTeamDto> export(MediaType mediaType, ObjectMapper mapper) throws Exception {
+        MvcResult async = mockMvc.perform(get("/v1/members/export").accept(mediaType))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] body = mockMvc.perform(asyncDispatch(async))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(mediaType))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (MappingIterator<MemberTeamDto> rows = mapper.readerFor(MemberTeamDto.class).readValues(body)) {
+            return rows.readAll();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package study.KYHquerydsl.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import study.KYHquerydsl.dto.MemberCursor;
+import study.KYHquerydsl.dto.MemberTeamDto;
+import study.KYHquerydsl.entity.Member;
+import study.KYHquerydsl.repository.MemberRepository;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberCursorApiTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @AfterEach
+    public void after() {
+        memberRepository.deleteAll();
+    }
+
+    @Test
+    public void sortMustMatchCursor() throws Exception {
+        memberRepository.save(new Member("member1", 10));
+        memberRepository.save(new Member("member2", 20));
+        String cursor = MemberCursor.first(MemberCursor.SortKey.AGE)
+                .next(new MemberTeamDto(0L, "member0", 15, null, null))
+                .encode();
+
+        // 커서의 정렬을 따른다. (sort 생략 또는 같은 값)
+        mockMvc.perform(get("/v4/members").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].username").value("member2"));
+        mockMvc.perform(get("/v4/members").param("cursor", cursor).param("sort", "AGE"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/v4/members").param("cursor", cursor).param("sort", "ID"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,98 @@
+package study.KYHquerydsl.controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.request.ServletWebRequest;
+import study.KYHquerydsl.entity.Member;
+import study.KYHquerydsl.listener.DataVersions;
+import study.KYHquerydsl.repository.MemberRepository;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// 데이터 버전은 커밋 후에 올라가므로 @Transactional 없이 실제로 커밋한다.
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberEtagsTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @AfterEach
+    public void after() {
+        memberRepository.deleteAll();
+    }
+
+    @Test
+    public void notModifiedUntilMemberChanges() throws Exception {
+        String etag = mockMvc.perform(get("/v3/members").param("page", "0").param("size", "5"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotNull();
+
+        mockMvc.perform(get("/v3/members").param("page", "0").param("size", "5")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        memberRepository.save(new Member("member1", 10));
+
+        String changed = mockMvc.perform(get("/v3/members").param("page", "0").param("size", "5")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(changed).isNotEqualTo(etag);
+    }
+
+    @Test
+    public void etagDependsOnNegotiatedFormat() throws Exception {
+        String jsonEtag = mockMvc.perform(get("/v2/members").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // JSON 의 ETag 로 CBOR 를 요청하면 304 가 아니라 CBOR 본문을 받아야 한다.
+        String cborEtag = mockMvc.perform(get("/v2/members").accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, jsonEtag))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(cborEtag).isNotEqualTo(jsonEtag);
+
+        mockMvc.perform(get("/v2/members").accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, cborEtag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)));
+    }
+
+    @Test
+    public void noEtagWhileReplicaMayLag() {
+        DataVersions dataVersions = new DataVersions();
+        MemberEtags etags = new MemberEtags(dataVersions, new SimpleMeterRegistry(), true, Duration.ofSeconds(10));
+        dataVersions.onInsert(new Member("member1", 10));
+
+        // 커밋 직후에는 replica 가 예전 데이터를 줄 수 있으므로 ETag 를 붙이지 않는다.
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertThat(etags.checkNotModified(new ServletWebRequest(new MockHttpServletRequest(), response), "test")).isFalse();
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNull();
+        assertThat(response.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT);
+    }
+}
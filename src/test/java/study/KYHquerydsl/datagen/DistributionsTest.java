@@ -0,0 +1,44 @@
+package study.KYHquerydsl.datagen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DistributionsTest {
+
+    @Test
+    public void normalAgeStaysInRange() {
+        DataGenProperties props = new DataGenProperties();
+        props.setAgeDistribution(DataGenProperties.AgeDistribution.NORMAL);
+        props.setAgeMin(20);
+        props.setAgeMax(60);
+        props.setAgeMean(40);
+        props.setAgeStddev(30);
+
+        IntSupplier ages = Distributions.age(props, new Random(1));
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(ages.getAsInt()).isBetween(20, 60);
+        }
+    }
+
+    @Test
+    public void zipfTeamSizeIsSkewed() {
+        DataGenProperties props = new DataGenProperties();
+        props.setTeams(100);
+        props.setTeamDistribution(DataGenProperties.TeamDistribution.ZIPF);
+
+        IntSupplier teamIndexes = Distributions.teamIndex(props, new Random(1));
+        int[] counts = new int[props.getTeams()];
+        for (int i = 0; i < 100_000; i++) {
+            counts[teamIndexes.getAsInt()]++;
+        }
+
+        // 1등 팀은 10등 팀보다 대략 10배 많다.
+        assertThat(counts[0]).isGreaterThan(counts[9] * 5);
+        assertThat(counts[9]).isGreaterThan(counts[99]);
+    }
+
+}
@@ -0,0 +1,60 @@
+package study.KYHquerydsl.datagen;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.KYHquerydsl.entity.Team;
+import study.KYHquerydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 생성기가 청크마다 커밋하므로 끝나면 지운다. (@Transactional 롤백 사용 불가)
+@SpringBootTest
+class MemberDataGeneratorTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MemberDataGenerator memberDataGenerator;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    // 벌크 delete 는 엔티티 이벤트가 없어서 캐시/통계/데이터 버전이 남으므로 엔티티 단위로 지운다.
+    @AfterEach
+    public void after() {
+        memberRepository.deleteAll();
+        transactionTemplate.executeWithoutResult(status ->
+                em.createQuery("select t from Team t", Team.class).getResultList().forEach(em::remove));
+    }
+
+    @Test
+    public void generateSmallDataset() {
+        DataGenProperties props = new DataGenProperties();
+        props.setMembers(50);
+        props.setTeams(3);
+        props.setChunkSize(20);  // 청크 20 + 20 + 10
+        props.setFlushSize(7);
+
+        LoadReport report = memberDataGenerator.generate(props);
+
+        assertThat(report.getMembers()).isEqualTo(50);
+        assertThat(report.getTeams()).isEqualTo(3);
+        assertThat(count("select count(m) from Member m")).isEqualTo(50);
+        assertThat(count("select count(t) from Team t")).isEqualTo(3);
+        assertThat(count("select count(m) from Member m where m.team is null")).isZero();
+        assertThat(count("select count(m) from Member m where m.age < 0 or m.age > 99")).isZero();
+    }
+
+    private long count(String jpql) {
+        return em.createQuery(jpql, Long.class).getSingleResult();
+    }
+}
@@ -0,0 +1,152 @@
+package study.KYHquerydsl.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.Cookie;
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 서로 다른 H2 메모리 DB 두 개를 primary/replica 로 두고, 각 DB 에 자기 이름을 넣어둔 뒤 어느 쪽에서 읽었는지 확인한다.
+class ReadWriteRoutingDataSourceTest {
+
+    DataSource primary = h2("routing_primary");
+    DataSource replica = h2("routing_replica");
+
+    @BeforeEach
+    public void before() {
+        for (DataSource dataSource : new DataSource[]{primary, replica}) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("create table if not exists node (name varchar(20))");
+            jdbcTemplate.update("delete from node");
+        }
+        new JdbcTemplate(primary).update("insert into node values ('primary')");
+        new JdbcTemplate(replica).update("insert into node values ('replica')");
+    }
+
+    @Test
+    public void readOnlyTransactionGoesToReplica() {
+        Routing routing = new Routing(replica, Duration.ZERO);
+
+        assertThat(routing.read()).isEqualTo("replica");
+        assertThat(routing.write()).isEqualTo("primary");
+        assertThat(routing.jdbcTemplate.queryForObject("select name from node", String.class)).isEqualTo("primary");  // 트랜잭션 밖
+    }
+
+    @Test
+    public void readYourWritesIsScopedToClient() throws Exception {
+        Routing routing = new Routing(replica, Duration.ofMillis(500));
+
+        MockHttpServletResponse writerResponse = inRequest(new MockHttpServletRequest(), () -> {
+            routing.write();
+            assertThat(routing.read()).isEqualTo("primary");  // 같은 요청 안에서 커밋 직후
+        });
+        Cookie lastWrite = writerResponse.getCookie(ReadWriteRoutingDataSource.LAST_WRITE_COOKIE);
+        assertThat(lastWrite).isNotNull();
+
+        inRequest(withCookie(lastWrite), () -> assertThat(routing.read()).isEqualTo("primary"));  // 쓴 클라이언트의 다음 요청
+        inRequest(new MockHttpServletRequest(), () -> assertThat(routing.read()).isEqualTo("replica"));  // 다른 클라이언트
+
+        Thread.sleep(600);
+        inRequest(withCookie(lastWrite), () -> assertThat(routing.read()).isEqualTo("replica"));
+    }
+
+    @Test
+    public void futureLastWriteIsIgnored() {
+        Routing routing = new Routing(replica, Duration.ofMinutes(1));
+        String future = String.valueOf(System.currentTimeMillis() + Duration.ofDays(365).toMillis());
+
+        MockHttpServletRequest withHeader = new MockHttpServletRequest();
+        withHeader.addHeader(ReadWriteRoutingDataSource.LAST_WRITE_HEADER, future);
+        inRequest(withHeader, () -> assertThat(routing.read()).isEqualTo("replica"));
+        inRequest(withCookie(new Cookie(ReadWriteRoutingDataSource.LAST_WRITE_COOKIE, future)),
+                () -> assertThat(routing.read()).isEqualTo("replica"));
+    }
+
+    @Test
+    public void writeTransactionWithoutDmlIsNotAWrite() {
+        Routing routing = new Routing(replica, Duration.ofMinutes(1));
+
+        MockHttpServletResponse response = inRequest(new MockHttpServletRequest(), () -> {
+            routing.writeTx.execute(status -> routing.jdbcTemplate.queryForObject("select name from node", String.class));
+            assertThat(routing.read()).isEqualTo("replica");
+        });
+        assertThat(response.getCookie(ReadWriteRoutingDataSource.LAST_WRITE_COOKIE)).isNull();
+    }
+
+    @Test
+    public void isDml() {
+        assertThat(ReadWriteRoutingDataSource.isDml("/* insert study.KYHquerydsl.entity.Member */ insert into member values (?)")).isTrue();
+        assertThat(ReadWriteRoutingDataSource.isDml("  UPDATE node set name = ?")).isTrue();
+        assertThat(ReadWriteRoutingDataSource.isDml("delete from node")).isTrue();
+        assertThat(ReadWriteRoutingDataSource.isDml("/* select m from Member m */ select * from member for update")).isFalse();
+    }
+
+    @Test
+    public void fallbackToPrimaryWhenReplicaIsDown() {
+        DriverManagerDataSource down = new DriverManagerDataSource("jdbc:h2:tcp://localhost:1/~/none");
+        Routing routing = new Routing(down, Duration.ZERO);
+
+        assertThat(routing.read()).isEqualTo("primary");
+        assertThat(routing.read()).isEqualTo("primary");  // backoff 동안은 replica 를 시도하지 않는다
+    }
+
+    private static MockHttpServletResponse inRequest(MockHttpServletRequest request, Runnable runnable) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        try {
+            runnable.run();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+        return response;
+    }
+
+    private static MockHttpServletRequest withCookie(Cookie cookie) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(cookie);
+        return request;
+    }
+
+    private static DataSource h2(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    private class Routing {
+        final JdbcTemplate jdbcTemplate;
+        final TransactionTemplate readOnlyTx;
+        final TransactionTemplate writeTx;
+
+        Routing(DataSource replica, Duration readYourWritesWindow) {
+            DataSource dataSource = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(
+                    primary, replica, Duration.ofMinutes(1), readYourWritesWindow));
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+            this.readOnlyTx = new TransactionTemplate(transactionManager);
+            this.readOnlyTx.setReadOnly(true);
+            this.writeTx = new TransactionTemplate(transactionManager);
+        }
+
+        String read() {
+            return readOnlyTx.execute(status -> jdbcTemplate.queryForObject("select name from node", String.class));
+        }
+
+        String write() {
+            return writeTx.execute(status -> {
+                jdbcTemplate.update("update node set name = name");
+                return jdbcTemplate.queryForObject("select name from node", String.class);
+            });
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package study.KYHquerydsl.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PageResponseTest {
+
+    ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .serializerByType(MemberTeamDto.class, new MemberTeamDtoSerializer())
+            .build();
+
+    @Test
+    public void serializerMatchesBeanSerialization() throws Exception {
+        ObjectMapper beanMapper = Jackson2ObjectMapperBuilder.json().build();
+        MemberTeamDto dto = new MemberTeamDto(1L, "member1", 10, 2L, "teamA");
+        MemberTeamDto noTeam = new MemberTeamDto(3L, null, 20, null, null);
+
+        assertThat(objectMapper.writeValueAsString(dto)).isEqualTo(beanMapper.writeValueAsString(dto));
+        assertThat(objectMapper.writeValueAsString(noTeam)).isEqualTo(beanMapper.writeValueAsString(noTeam));
+    }
+
+    @Test
+    public void compactEnvelope() throws Exception {
+        List<MemberTeamDto> content = List.of(new MemberTeamDto(1L, "member1", 10, 2L, "teamA"));
+        PageResponse<MemberTeamDto> response = PageResponse.of(new PageImpl<>(content, PageRequest.of(0, 1), 3));
+
+        assertThat(objectMapper.writeValueAsString(response)).isEqualTo(
+                "{\"content\":[{\"memberId\":1,\"username\":\"member1\",\"age\":10,\"teamId\":2,\"teamName\":\"teamA\"}]," +
+                        "\"page\":0,\"size\":1,\"total\":3,\"hasNext\":true}");
+    }
+
+    @Test
+    public void estimatedFlag() throws Exception {
+        PageResponse<MemberTeamDto> estimated = PageResponse.of(new EstimatedPage<>(List.of(), PageRequest.of(0, 10), 5000, false));
+        PageResponse<MemberTeamDto> exact = PageResponse.of(new EstimatedPage<>(List.of(), PageRequest.of(0, 10), 3, true));
+
+        assertThat(objectMapper.writeValueAsString(estimated)).endsWith("\"total\":5000,\"hasNext\":true,\"estimated\":true}");
+        assertThat(objectMapper.writeValueAsString(exact)).endsWith("\"total\":3,\"hasNext\":false,\"estimated\":false}");
+    }
+}
@@ -0,0 +1,61 @@
+package study.KYHquerydsl.entity;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class TeamCacheTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Test
+    public void teamLoadedFromSecondLevelCache() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 0; i < 4; i++) {
+            em.persist(new Member("member" + i, i * 10, teamA));
+        }
+        em.flush();
+        em.clear();
+
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // 첫 렌더링: member 조회 + team 조회 (`QuerydslBasicTest.fetchJoinNo` 와 같은 상황)
+        renderMembersWithTeam();
+        long first = statistics.getPrepareStatementCount();
+        em.clear();
+
+        // 두 번째 렌더링: team 은 2차 캐시에서 가져온다.
+        renderMembersWithTeam();
+        long second = statistics.getPrepareStatementCount() - first;
+
+        assertThat(statistics.getSecondLevelCacheHitCount()).isGreaterThan(0);
+        assertThat(first).isEqualTo(2);
+        assertThat(second).isEqualTo(1);
+    }
+
+    private void renderMembersWithTeam() {
+        List<Member> members = em.createQuery("select m from Member m", Member.class)
+                .getResultList();
+        for (Member member : members) {
+            System.out.println("member = " + member + ", team = " + member.getTeam().getName());
+        }
+    }
+
+}
@@ -0,0 +1,54 @@
+package study.KYHquerydsl.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.KYHquerydsl.dto.MemberSearchCondition;
+import study.KYHquerydsl.dto.MemberTeamDto;
+import study.KYHquerydsl.entity.Member;
+import study.KYHquerydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = "member.search.deferred-join=true")
+@Transactional
+class DeferredJoinTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Test
+    public void pagesKeepIdOrder() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 1; i <= 10; i++) {
+            em.persist(new Member("member" + i, i * 10, i % 2 == 0 ? teamA : teamB));
+        }
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(30);
+
+        Page<MemberTeamDto> complex = memberRepository.searchPageComplex(condition, PageRequest.of(1, 3));
+        Page<MemberTeamDto> simple = memberRepository.searchPageSimple(condition, PageRequest.of(1, 3));
+
+        assertThat(complex.getContent()).extracting("username", "teamName")
+                .containsExactly(
+                        tuple("member6", "teamA"),
+                        tuple("member7", "teamB"),
+                        tuple("member8", "teamA"));
+        assertThat(complex.getTotalElements()).isEqualTo(8);
+        assertThat(simple.getContent()).isEqualTo(complex.getContent());
+        assertThat(simple.getTotalElements()).isEqualTo(8);
+    }
+}
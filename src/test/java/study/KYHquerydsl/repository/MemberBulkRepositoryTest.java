@@ -0,0 +1,116 @@
+package study.KYHquerydsl.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.KYHquerydsl.dto.BulkResult;
+import study.KYHquerydsl.dto.MemberSearchCondition;
+import study.KYHquerydsl.entity.Member;
+import study.KYHquerydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.KYHquerydsl.entity.QMember.member;
+
+// 청크마다 별도 트랜잭션으로 커밋되므로 테스트 데이터를 커밋해두고 끝나면 지운다. (@Transactional 롤백 사용 불가)
+@SpringBootTest(properties = "member.bulk.chunk-size=2")
+class MemberBulkRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @BeforeEach
+    public void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            em.persist(new Member("member1", 10, teamA));
+            em.persist(new Member("member2", 20, teamA));
+            em.persist(new Member("member3", 30, teamA));
+            em.persist(new Member("member4", 40, teamB));
+            em.persist(new Member("member5", 50, teamA));
+        });
+    }
+
+    // 벌크 delete 는 엔티티 이벤트가 없어서 캐시/통계/데이터 버전이 남으므로 엔티티 단위로 지운다.
+    @AfterEach
+    public void after() {
+        memberRepository.deleteAll();
+        transactionTemplate.executeWithoutResult(status ->
+                em.createQuery("select t from Team t", Team.class).getResultList().forEach(em::remove));
+    }
+
+    @Test
+    public void bulkUpdateInChunks() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        List<BulkResult> progress = new ArrayList<>();
+
+        BulkResult result = memberRepository.bulkUpdate(condition,
+                update -> update.set(member.age, member.age.add(1)), progress::add);
+
+        assertThat(result.getRows()).isEqualTo(4);
+        assertThat(result.getChunks()).isEqualTo(2);  // 2 + 2 (chunk-size=2)
+        assertThat(progress).extracting("rows").containsExactly(2L, 4L);
+        assertThat(ages()).containsExactly(11, 21, 31, 40, 51);
+    }
+
+    @Test
+    public void bulkDeleteInChunks() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+
+        BulkResult result = memberRepository.bulkDelete(condition, null);
+
+        assertThat(result.getRows()).isEqualTo(4);
+        assertThat(result.getChunks()).isEqualTo(2);
+        assertThat(ages()).containsExactly(10);
+    }
+
+    @Test
+    public void managedEntityIsDetached() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Member member1 = memberRepository.findByUsername("member1").get(0);
+
+            memberRepository.bulkUpdate(new MemberSearchCondition(),
+                    update -> update.set(member.age, member.age.add(1)), null);
+
+            // 벌크 연산 후 flush()/clear() 없이도 DB 값을 다시 읽는다. (`QuerydslBasicTest.bulkUpdate` 와 비교)
+            assertThat(em.contains(member1)).isFalse();
+            assertThat(memberRepository.findById(member1.getId()).get().getAge()).isEqualTo(11);
+        });
+    }
+
+    @Test
+    public void unflushedChangeIsNotDiscarded() {
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            Member member1 = memberRepository.findByUsername("member1").get(0);
+            member1.setAge(99);
+
+            memberRepository.bulkUpdate(new MemberSearchCondition(),
+                    update -> update.set(member.age, member.age.add(1)), null);
+        })).isInstanceOf(IllegalStateException.class);
+
+        // 시작하기 전에 거부하므로 아무것도 바뀌지 않는다.
+        assertThat(ages()).containsExactly(10, 20, 30, 40, 50);
+    }
+
+    private List<Integer> ages() {
+        return em.createQuery("select m.age from Member m order by m.id", Integer.class).getResultList();
+    }
+}
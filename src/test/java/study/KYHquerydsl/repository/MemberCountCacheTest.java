@@ -0,0 +1,143 @@
+package study.KYHquerydsl.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.KYHquerydsl.dto.MemberSearchCondition;
+import study.KYHquerydsl.entity.Member;
+import study.KYHquerydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.KYHquerydsl.support.SqlCountAssertions.countSql;
+
+// 커밋 후 무효화를 확인하므로 테스트 데이터를 커밋해두고 끝나면 지운다. (@Transactional 롤백 사용 불가)
+// 페이지(2건)보다 결과가 많아야 count 쿼리가 실행된다: 미스면 컨텐츠 + count 2번, 히트면 컨텐츠 1번
+@SpringBootTest
+class MemberCountCacheTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberCountCache countCache;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    Long teamAId;
+    Long member1Id;
+
+    @BeforeEach
+    public void before() {
+        countCache.invalidateAll();
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            Member member1 = new Member("member1", 10, teamA);
+            em.persist(member1);
+            em.persist(new Member("member2", 20, teamA));
+            em.persist(new Member("member3", 30, teamB));
+            em.persist(new Member("member4", 40, teamB));
+            em.persist(new Member("member5", 50, teamA));
+            teamAId = teamA.getId();
+            member1Id = member1.getId();
+        });
+    }
+
+    // 벌크 delete 는 엔티티 이벤트가 없어서 캐시/통계/데이터 버전이 남으므로 엔티티 단위로 지운다.
+    @AfterEach
+    public void after() {
+        memberRepository.deleteAll();
+        transactionTemplate.executeWithoutResult(status ->
+                em.createQuery("select t from Team t", Team.class).getResultList().forEach(em::remove));
+    }
+
+    @Test
+    public void secondSearchSkipsCountQuery() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        double skipped = countQueries(true);
+        double executed = countQueries(false);
+
+        assertThat(countSql(() -> search(condition))).isEqualTo(2);
+        assertThat(countSql(() -> search(condition))).isEqualTo(1);
+        assertThat(memberRepository.searchPageComplex(condition, PageRequest.of(0, 2)).getTotalElements()).isEqualTo(5);
+
+        // 캐시에서 꺼낸 count 는 실행되지 않은 것(skipped:true)으로 기록한다.
+        assertThat(countQueries(false) - executed).isEqualTo(1);
+        assertThat(countQueries(true) - skipped).isEqualTo(2);
+    }
+
+    @Test
+    public void committedChangeInvalidates() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        search(condition);
+
+        transactionTemplate.executeWithoutResult(status -> em.persist(new Member("member6", 60, em.find(Team.class, teamAId))));
+        assertThat(countSql(() -> search(condition))).isEqualTo(2);
+        assertThat(memberRepository.searchPageComplex(condition, PageRequest.of(0, 2)).getTotalElements()).isEqualTo(6);
+
+        transactionTemplate.executeWithoutResult(status -> em.find(Member.class, member1Id).setAge(11));
+        assertThat(countSql(() -> search(condition))).isEqualTo(2);
+
+        transactionTemplate.executeWithoutResult(status -> em.remove(em.find(Member.class, member1Id)));
+        assertThat(countSql(() -> search(condition))).isEqualTo(2);
+        assertThat(memberRepository.searchPageComplex(condition, PageRequest.of(0, 2)).getTotalElements()).isEqualTo(5);
+
+        transactionTemplate.executeWithoutResult(status -> em.find(Team.class, teamAId).setName("teamC"));
+        assertThat(countSql(() -> search(condition))).isEqualTo(2);
+    }
+
+    @Test
+    public void blankConditionSharesKeyWithNull() {
+        MemberSearchCondition nullCondition = new MemberSearchCondition();
+        MemberSearchCondition blankCondition = new MemberSearchCondition();
+        blankCondition.setUsername("");
+        blankCondition.setTeamName("  ");
+
+        assertThat(MemberCountCache.CountKey.of(blankCondition)).isEqualTo(MemberCountCache.CountKey.of(nullCondition));
+        assertThat(countSql(() -> search(nullCondition))).isEqualTo(2);
+        assertThat(countSql(() -> search(blankCondition))).isEqualTo(1);
+    }
+
+    @Test
+    public void countComputedBeforeInvalidationIsNotStored() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        // count 쿼리가 실행되는 동안 다른 트랜잭션이 커밋돼서 무효화된 경우
+        long stale = countCache.get(condition, () -> {
+            countCache.invalidateAll();
+            return 99L;
+        });
+
+        assertThat(stale).isEqualTo(99L);
+        assertThat(countCache.get(condition, () -> 5L)).isEqualTo(5L);
+    }
+
+    private double countQueries(boolean skipped) {
+        Counter counter = meterRegistry.find("member.repository.count.query")
+                .tags("method", "searchPageComplex", "skipped", String.valueOf(skipped))
+                .counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private void search(MemberSearchCondition condition) {
+        memberRepository.searchPageComplex(condition, PageRequest.of(0, 2));
+    }
+}
@@ -0,0 +1,152 @@
+package study.KYHquerydsl.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import study.KYHquerydsl.dto.MemberSearchCondition;
+import study.KYHquerydsl.entity.Member;
+import study.KYHquerydsl.entity.Team;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberCountEstimatorTest {
+
+    // Member 의 (id 제외) 프로퍼티 이름. state 배열은 이 순서로 만든다.
+    static final String[] NAMES = {"age", "team", "username"};
+
+    MemberCountEstimator estimator;
+    Team teamA;
+    Team teamB;
+
+    // teamA 600명, teamB 400명. 나이는 0~99 에 10명씩
+    @BeforeEach
+    public void before() {
+        estimator = new MemberCountEstimator(null, null, 10, Duration.ofDays(1));
+        Object[][] ages = new Object[100][];
+        for (int age = 0; age < 100; age++) {
+            ages[age] = new Object[]{age, 10L};
+        }
+        estimator.rebuild(
+                Arrays.asList(new Object[]{1L, "teamA"}, new Object[]{2L, "teamB"}).iterator(),
+                Arrays.asList(new Object[]{1L, 600L}, new Object[]{2L, 400L}).iterator(),
+                Arrays.asList(ages).iterator());
+
+        teamA = new Team("teamA");
+        teamA.setId(1L);
+        teamB = new Team("teamB");
+        teamB.setId(2L);
+    }
+
+    @Test
+    public void estimate() {
+        assertThat(estimator.estimate(condition(null, null, null)).getAsLong()).isEqualTo(1000);
+        assertThat(estimator.estimate(condition("teamA", null, null)).getAsLong()).isEqualTo(600);
+        assertThat(estimator.estimate(condition(null, 15, 34)).getAsLong()).isEqualTo(200);  // 구간 일부만 걸쳐도 비율만큼
+        assertThat(estimator.estimate(condition("teamB", 50, null)).getAsLong()).isEqualTo(200);  // 1000 * 0.4 * 0.5
+    }
+
+    @Test
+    public void usernameIsNotEstimated() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("member1");
+
+        assertThat(estimator.estimate(condition)).isEmpty();
+    }
+
+    @Test
+    public void appliesChanges() {
+        Member inserted = new Member("new", 5, teamB);
+        insert(inserted);
+
+        Member moved = new Member("moved", 95, teamA);
+        moved.changeTeam(teamB);  // teamA(95세) -> teamB(5세)
+        moved.setAge(5);
+        estimator.onUpdate(moved, new Object[]{95, teamA, "moved"}, state(moved), NAMES);
+
+        Member deleted = new Member("deleted", 5, teamA);
+        estimator.onDelete(deleted, state(deleted), NAMES);
+
+        assertThat(estimator.estimate(condition("teamA", null, null)).getAsLong()).isEqualTo(598);
+        assertThat(estimator.estimate(condition("teamB", null, null)).getAsLong()).isEqualTo(402);
+        assertThat(estimator.estimate(condition(null, 0, 9)).getAsLong()).isEqualTo(101);  // 100 + 1 + 1 - 1
+        assertThat(estimator.estimate(condition(null, 90, 99)).getAsLong()).isEqualTo(99);
+    }
+
+    @Test
+    public void bulkChangeReloads() {
+        estimator.onBulkChange(Member.class, Collections.singletonList(1L));
+
+        // 다시 읽기 시작하기 전의 이벤트는 버린다. (다시 읽을 때 커밋된 상태를 그대로 읽음)
+        insert(new Member("ignored", 5, teamA));
+        estimator.rebuild(
+                Collections.singletonList(new Object[]{1L, "teamA"}).iterator(),
+                Collections.singletonList(new Object[]{1L, 3L}).iterator(),
+                Collections.singletonList(new Object[]{5, 3L}).iterator());
+
+        assertThat(estimator.estimate(condition("teamA", null, null)).getAsLong()).isEqualTo(3);
+    }
+
+    @Test
+    public void replaysChangesDuringReload() {
+        assertThat(estimator.beginReload()).isTrue();
+        assertThat(estimator.beginReload()).isFalse();  // 동시에 하나만 읽는다.
+
+        // 읽는 동안에도 지금 카운터로 추정하고, 들어온 이벤트는 새 카운터에 다시 반영한다.
+        insert(new Member("during", 5, teamA));
+        assertThat(estimator.estimate(condition("teamA", null, null)).getAsLong()).isEqualTo(601);
+
+        estimator.rebuild(
+                Collections.singletonList(new Object[]{1L, "teamA"}).iterator(),
+                Collections.singletonList(new Object[]{1L, 3L}).iterator(),
+                Collections.singletonList(new Object[]{5, 3L}).iterator());
+
+        assertThat(estimator.estimate(condition("teamA", null, null)).getAsLong()).isEqualTo(4);
+        assertThat(estimator.beginReload()).isTrue();
+    }
+
+    @Test
+    public void bulkChangeDuringReloadReloadsAgain() {
+        estimator.beginReload();
+        estimator.onBulkChange(Member.class, Collections.singletonList(1L));
+        estimator.rebuild(
+                Collections.singletonList(new Object[]{1L, "teamA"}).iterator(),
+                Collections.singletonList(new Object[]{1L, 3L}).iterator(),
+                Collections.singletonList(new Object[]{5, 3L}).iterator());
+
+        // 읽은 결과에 벌크 변경이 들어갔는지 모르므로 다음 추정 때 다시 읽어야 한다.
+        assertThat(estimator).extracting("stale").isEqualTo(true);
+    }
+
+    @Test
+    public void usesFlushTimeState() {
+        // 한 트랜잭션에서 insert(5세) 후 update(5 -> 15), update(15 -> 25) 가 flush 되고 커밋 후에 이벤트가 전달된 경우.
+        // 엔티티에는 마지막 값(25세)만 남아 있으므로 각 이벤트의 state 를 써야 한다.
+        Member member = new Member("member", 25, teamA);
+        estimator.onInsert(member, new Object[]{5, teamA, "member"}, NAMES);
+        estimator.onUpdate(member, new Object[]{5, teamA, "member"}, new Object[]{15, teamA, "member"}, NAMES);
+        estimator.onUpdate(member, new Object[]{15, teamA, "member"}, new Object[]{25, teamA, "member"}, NAMES);
+
+        assertThat(estimator.estimate(condition(null, 0, 9)).getAsLong()).isEqualTo(100);
+        assertThat(estimator.estimate(condition(null, 10, 19)).getAsLong()).isEqualTo(100);
+        assertThat(estimator.estimate(condition(null, 20, 29)).getAsLong()).isEqualTo(101);
+    }
+
+    private void insert(Member member) {
+        estimator.onInsert(member, state(member), NAMES);
+    }
+
+    private static Object[] state(Member member) {
+        return new Object[]{member.getAge(), member.getTeam(), member.getUsername()};
+    }
+
+    private MemberSearchCondition condition(String teamName, Integer ageGoe, Integer ageLoe) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName(teamName);
+        condition.setAgeGoe(ageGoe);
+        condition.setAgeLoe(ageLoe);
+        return condition;
+    }
+}
@@ -1,6 +1,8 @@
 package study.KYHquerydsl.repository;
 
 import org.assertj.core.api.Assertions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -12,7 +14,12 @@ import study.KYHquerydsl.entity.Team;
 
 import javax.persistence.EntityManager;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -80,4 +87,84 @@ class MemberJpaRepositoryTest {
         assertThat(result).extracting("username").containsExactly("member4");
     }
 
-}
\ No newline at end of file
+    @Test
+    public void searchStreamTest() throws Exception {
+        // given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+
+        // when
+        List<MemberTeamDto> result;
+        try (Stream<MemberTeamDto> stream = memberJpaRepository.searchStream(condition, 2)) {
+            result = stream.collect(Collectors.toList());
+        }
+
+        // then
+        assertThat(result).extracting("username").containsExactlyInAnyOrder("member3", "member4");
+    }
+
+    @Test
+    public void findAllByIdsTest() throws Exception {
+        // given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, teamA);
+        Member member3 = new Member("member3", 30);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+
+        // when: 요청 순서대로, 중복/null/없는 id 는 무시
+        Map<Long, Member> members = memberJpaRepository.findAllByIds(
+                Arrays.asList(member3.getId(), member1.getId(), null, member3.getId(), -1L));
+        Map<Long, MemberTeamDto> dtos = memberJpaRepository.findAllDtoByIds(List.of(member2.getId(), member3.getId()));
+
+        // then
+        assertThat(members.keySet()).containsExactly(member3.getId(), member1.getId());
+        assertThat(members.get(member1.getId())).isSameAs(member1);
+        assertThat(dtos.values()).extracting("username", "teamName")
+                .containsExactly(tuple("member2", "teamA"), tuple("member3", null));
+        assertThat(memberJpaRepository.findAllByIds(List.of())).isEmpty();
+    }
+
+    @Test
+    public void findAllByIdsReusesQueryPlan() throws Exception {
+        // given
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Member member = new Member("member" + i, i);
+            em.persist(member);
+            ids.add(member.getId());
+        }
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        // when: id 3개, 4개는 둘 다 IN 목록 크기 4 로 채워진다.
+        memberJpaRepository.findAllByIds(ids.subList(0, 3));
+        long missCount = statistics.getQueryPlanCacheMissCount();
+        Map<Long, Member> result = memberJpaRepository.findAllByIds(ids);
+
+        // then
+        assertThat(result).hasSize(4);
+        assertThat(statistics.getQueryPlanCacheMissCount()).isEqualTo(missCount);
+    }
+
+    @Test
+    public void paddedSizeTest() {
+        assertThat(MemberJpaRepository.paddedSize(1)).isEqualTo(1);
+        assertThat(MemberJpaRepository.paddedSize(2)).isEqualTo(2);
+        assertThat(MemberJpaRepository.paddedSize(3)).isEqualTo(4);
+        assertThat(MemberJpaRepository.paddedSize(256)).isEqualTo(256);
+        assertThat(MemberJpaRepository.paddedSize(257)).isEqualTo(512);
+    }
+}
@@ -0,0 +1,88 @@
+package study.KYHquerydsl.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import study.KYHquerydsl.dto.MemberSearchCondition;
+import study.KYHquerydsl.dto.MemberTeamDto;
+import study.KYHquerydsl.entity.Member;
+import study.KYHquerydsl.entity.Team;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class MemberReadModelTest {
+
+    MemberReadModel readModel;
+    Team teamA;
+    Team teamB;
+
+    @BeforeEach
+    public void before() {
+        readModel = new MemberReadModel(null, null, "memory");
+        readModel.rebuild(
+                Arrays.asList(new Object[]{1L, "teamA"}, new Object[]{2L, "teamB"}).iterator(),
+                Arrays.asList(
+                        new Object[]{1L, "member1", 10, 1L},
+                        new Object[]{2L, "member2", 20, 1L},
+                        new Object[]{3L, "member3", 30, 2L},
+                        new Object[]{4L, "member4", 40, 2L}).iterator());
+
+        teamA = new Team("teamA");
+        teamA.setId(1L);
+        teamB = new Team("teamB");
+        teamB.setId(2L);
+    }
+
+    @Test
+    public void search() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(35);
+        condition.setAgeLoe(40);
+        condition.setTeamName("teamB");
+
+        List<MemberTeamDto> result = readModel.search(condition);
+
+        assertThat(result).extracting("username").containsExactly("member4");
+        assertThat(result.get(0).getTeamId()).isEqualTo(2L);
+    }
+
+    @Test
+    public void unknownValueMatchesNothing() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("nobody");
+
+        assertThat(readModel.search(condition)).isEmpty();
+    }
+
+    @Test
+    public void appliesChanges() {
+        Member member5 = new Member("member5", 50, teamA);
+        member5.setId(5L);
+        readModel.onInsert(member5);
+
+        Member member1 = new Member("member1", 10, teamA);
+        member1.setId(1L);
+        member1.changeTeam(teamB);
+        readModel.onUpdate(member1, null, null);
+
+        Member member3 = new Member("member3", 30, teamB);
+        member3.setId(3L);
+        readModel.onDelete(member3);
+
+        teamA.setName("teamC");
+        readModel.onUpdate(teamA, null, null);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        assertThat(readModel.search(condition))
+                .extracting("username", "teamName")
+                .containsExactly(
+                        tuple("member1", "teamB"),
+                        tuple("member2", "teamC"),
+                        tuple("member4", "teamB"),
+                        tuple("member5", "teamC"));
+    }
+
+}
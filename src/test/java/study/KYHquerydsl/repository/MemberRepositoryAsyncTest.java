@@ -0,0 +1,98 @@
+package study.KYHquerydsl.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import study.KYHquerydsl.dto.MemberSearchCondition;
+import study.KYHquerydsl.dto.MemberTeamDto;
+import study.KYHquerydsl.entity.Member;
+import study.KYHquerydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 비동기 조회는 별도 트랜잭션에서 실행되므로 테스트 데이터를 커밋해두고 끝나면 지운다. (@Transactional 롤백 사용 불가)
+@SpringBootTest
+class MemberRepositoryAsyncTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberQueryExecutor queryExecutor;
+
+    @BeforeEach
+    public void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            em.persist(new Member("member1", 10, teamA));
+            em.persist(new Member("member2", 20, teamA));
+            em.persist(new Member("member3", 30, teamB));
+            em.persist(new Member("member4", 40, teamB));
+        });
+    }
+
+    // 벌크 delete 는 엔티티 이벤트가 없어서 캐시/통계/데이터 버전이 남으므로 엔티티 단위로 지운다.
+    @AfterEach
+    public void after() {
+        memberRepository.deleteAll();
+        transactionTemplate.executeWithoutResult(status ->
+                em.createQuery("select t from Team t", Team.class).getResultList().forEach(em::remove));
+    }
+
+    @Test
+    public void fanOutAndJoin() {
+        MemberSearchCondition teamB = new MemberSearchCondition();
+        teamB.setTeamName("teamB");
+        MemberSearchCondition ageGoe20 = new MemberSearchCondition();
+        ageGoe20.setAgeGoe(20);
+
+        CompletableFuture<List<MemberTeamDto>> searchFuture = memberRepository.searchAsync(teamB);
+        CompletableFuture<Page<MemberTeamDto>> pageFuture = memberRepository.searchPageComplexAsync(ageGoe20, PageRequest.of(0, 2));
+        CompletableFuture.allOf(searchFuture, pageFuture).join();
+
+        // 정렬 조건이 없으므로 순서(페이지에 들어가는 행)는 보장되지 않는다.
+        assertThat(searchFuture.join()).extracting("username").containsExactlyInAnyOrder("member3", "member4");
+        assertThat(pageFuture.join().getTotalElements()).isEqualTo(3);
+        assertThat(pageFuture.join().getContent()).extracting("username")
+                .hasSize(2)
+                .doesNotHaveDuplicates()
+                .isSubsetOf("member2", "member3", "member4");
+    }
+
+    @Test
+    public void requestContextPropagated() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute("traceId", "trace-1");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            Object traceId = queryExecutor.supplyAsync(() -> RequestContextHolder.currentRequestAttributes()
+                    .getAttribute("traceId", RequestAttributes.SCOPE_REQUEST)).join();
+
+            assertThat(traceId).isEqualTo("trace-1");
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+}
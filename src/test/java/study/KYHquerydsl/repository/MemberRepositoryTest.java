@@ -6,6 +6,9 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.transaction.annotation.Transactional;
+import study.KYHquerydsl.dto.CursorSlice;
+import study.KYHquerydsl.dto.EstimatedPage;
+import study.KYHquerydsl.dto.MemberCursor;
 import study.KYHquerydsl.dto.MemberSearchCondition;
 import study.KYHquerydsl.dto.MemberTeamDto;
 import study.KYHquerydsl.entity.Member;
@@ -16,6 +19,7 @@ import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
+import static study.KYHquerydsl.support.SqlCountAssertions.assertSqlCount;
 
 @SpringBootTest
 @Transactional
@@ -118,6 +122,61 @@ class MemberRepositoryTest {
 
     }
 
+    @Test
+    public void searchPageEstimatedLastPage() throws Exception {
+        // given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 1; i <= 4; i++) {
+            em.persist(new Member("member" + i, i * 10, teamA));
+        }
+        em.flush();
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        // when: 꽉 찬 마지막 페이지는 한 건 더 읽어서 뒤에 없다는 걸 안다. (count 쿼리 없음)
+        assertSqlCount(1, () -> memberRepository.searchPageEstimated(condition, PageRequest.of(1, 2)));
+        EstimatedPage<MemberTeamDto> lastPage = memberRepository.searchPageEstimated(condition, PageRequest.of(1, 2));
 
+        // then
+        assertThat(lastPage.getContent()).hasSize(2);
+        assertThat(lastPage.getTotalElements()).isEqualTo(4);
+        assertThat(lastPage.isTotalExact()).isTrue();
+        assertThat(lastPage.hasNext()).isFalse();
+
+        // 범위를 벗어난 빈 페이지는 추정하지 않고 정확히 센다.
+        EstimatedPage<MemberTeamDto> outOfRange = memberRepository.searchPageEstimated(condition, PageRequest.of(5, 2));
+        assertThat(outOfRange.getContent()).isEmpty();
+        assertThat(outOfRange.getTotalElements()).isEqualTo(4);
+        assertThat(outOfRange.isTotalExact()).isTrue();
+    }
+
+    @Test
+    public void searchByCursor() throws Exception {
+        // given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 40, teamA));
+        em.persist(new Member("member2", 10, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 20, teamB));
+        em.persist(new Member("member5", 20, teamB));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeLoe(30);
+
+        // when
+        CursorSlice<MemberTeamDto> first = memberRepository.searchByCursor(condition, MemberCursor.first(MemberCursor.SortKey.AGE), 2);
+        CursorSlice<MemberTeamDto> second = memberRepository.searchByCursor(condition, MemberCursor.decode(first.getNextCursor()), 2);
+
+        // then
+        assertThat(first.isHasNext()).isTrue();
+        assertThat(first.getContent()).extracting("username").containsExactly("member2", "member4");
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+        assertThat(second.getContent()).extracting("username").containsExactly("member5", "member3");
+    }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,72 @@
+package study.KYHquerydsl.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.KYHquerydsl.dto.MemberSearchCondition;
+import study.KYHquerydsl.dto.MemberTeamDto;
+import study.KYHquerydsl.entity.Member;
+import study.KYHquerydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberSearchQueryTemplatesTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberSearchQueryTemplates queryTemplates;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Test
+    public void sameResultAsQuerydslForEveryShape() throws Exception {
+        // given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.persist(new Member("member5", 50));
+
+        for (int shape = 0; shape < MemberSearchQueryTemplates.SHAPES; shape++) {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            if ((shape & MemberSearchQueryTemplates.USERNAME) != 0) condition.setUsername("member3");
+            if ((shape & MemberSearchQueryTemplates.TEAM_NAME) != 0) condition.setTeamName("teamB");
+            if ((shape & MemberSearchQueryTemplates.AGE_GOE) != 0) condition.setAgeGoe(20);
+            if ((shape & MemberSearchQueryTemplates.AGE_LOE) != 0) condition.setAgeLoe(40);
+
+            // when
+            List<MemberTeamDto> expected = memberJpaRepository.search(condition);
+            List<MemberTeamDto> result = MemberSearchQueryTemplates.toDtos(queryTemplates.content(em, condition).getResultList());
+            Long count = queryTemplates.count(em, condition).getSingleResult();
+
+            // then
+            assertThat(MemberSearchQueryTemplates.shapeOf(condition)).isEqualTo(shape);
+            assertThat(result).containsExactlyInAnyOrderElementsOf(expected);
+            assertThat(count).isEqualTo(expected.size());
+        }
+    }
+
+    @Test
+    public void blankTextIsNoCondition() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(" ");
+        condition.setTeamName("");
+
+        assertThat(MemberSearchQueryTemplates.shapeOf(condition)).isZero();
+    }
+
+}
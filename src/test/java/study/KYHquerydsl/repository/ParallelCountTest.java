@@ -0,0 +1,138 @@
+package study.KYHquerydsl.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.KYHquerydsl.dto.EstimatedPage;
+import study.KYHquerydsl.dto.MemberSearchCondition;
+import study.KYHquerydsl.dto.MemberTeamDto;
+import study.KYHquerydsl.entity.Member;
+import study.KYHquerydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// count 는 별도 스레드/트랜잭션에서 실행되므로 테스트 데이터를 커밋해두고 끝나면 지운다. (@Transactional 롤백 사용 불가)
+// count 스레드는 1개, 큐는 1칸. 스레드(와 큐)를 막아두는 작업을 먼저 넣어서 timeout, 큐가 가득 찬 경우를 만든다.
+@SpringBootTest(properties = {
+        "member.search.parallel-count.enabled=true",
+        "member.search.parallel-count.pool-size=1",
+        "member.search.parallel-count.queue-capacity=1",
+        "member.search.parallel-count.timeout=200ms"
+})
+class ParallelCountTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    ParallelCountRunner parallelCountRunner;
+
+    @Autowired
+    MemberCountCache countCache;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    CountDownLatch release = new CountDownLatch(1);
+
+    // 결과 5건, 페이지 크기 2: 첫 페이지가 꽉 차므로 count 가 필요하다.
+    MemberSearchCondition condition = new MemberSearchCondition();
+    PageRequest pageRequest = PageRequest.of(0, 2);
+
+    @BeforeEach
+    public void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            for (int i = 1; i <= 5; i++) {
+                em.persist(new Member("member" + i, i * 10, teamA));
+            }
+        });
+        countCache.invalidateAll();
+    }
+
+    @AfterEach
+    public void after() {
+        release.countDown();
+        memberRepository.deleteAll();
+        transactionTemplate.executeWithoutResult(status ->
+                em.createQuery("select t from Team t", Team.class).getResultList().forEach(em::remove));
+    }
+
+    @Test
+    public void parallelCount() {
+        double executed = countQueries(false);
+        double skipped = countQueries(true);
+
+        Page<MemberTeamDto> page = memberRepository.searchPageComplex(condition, pageRequest);
+
+        assertThat(page).isNotInstanceOf(EstimatedPage.class);
+        assertThat(page.getContent()).hasSize(2);
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.hasNext()).isTrue();
+
+        // 두 번째는 count 스레드에서 캐시에서 꺼낸다. (count 쿼리 생략으로 기록)
+        assertThat(memberRepository.searchPageComplex(condition, pageRequest).getTotalElements()).isEqualTo(5);
+        assertThat(countQueries(false) - executed).isEqualTo(1);
+        assertThat(countQueries(true) - skipped).isEqualTo(1);
+    }
+
+    @Test
+    public void timeoutReturnsEstimatedPage() {
+        block();  // count 는 큐에서 기다리다가 timeout
+
+        Page<MemberTeamDto> page = memberRepository.searchPageComplex(condition, pageRequest);
+
+        assertThat(page).isInstanceOf(EstimatedPage.class);
+        assertThat(((EstimatedPage<MemberTeamDto>) page).isTotalExact()).isFalse();
+        assertThat(page.getContent()).hasSize(2);
+        assertThat(page.getTotalElements()).isGreaterThanOrEqualTo(3);  // 한 건 더 읽었으므로 최소 offset + 2 + 1
+    }
+
+    @Test
+    public void saturatedExecutorFallsBackToExactCount() {
+        block();
+        block();  // 스레드와 큐가 모두 차서 count 를 넣을 수 없다.
+
+        Page<MemberTeamDto> page = memberRepository.searchPageComplex(condition, pageRequest);
+
+        assertThat(page).isNotInstanceOf(EstimatedPage.class);
+        assertThat(page.getTotalElements()).isEqualTo(5);
+    }
+
+    private void block() {
+        Future<Long> blocker = parallelCountRunner.submit(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 0;
+        });
+        assertThat(blocker).isNotNull();
+    }
+
+    private double countQueries(boolean skipped) {
+        Counter counter = meterRegistry.find("member.repository.count.query")
+                .tags("method", "searchPageComplex", "skipped", String.valueOf(skipped))
+                .counter();
+        return counter != null ? counter.count() : 0;
+    }
+}
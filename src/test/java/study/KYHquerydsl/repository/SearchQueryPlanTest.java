@@ -0,0 +1,114 @@
+package study.KYHquerydsl.repository;
+
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.KYHquerydsl.dto.MemberCursor;
+import study.KYHquerydsl.dto.MemberSearchCondition;
+import study.KYHquerydsl.entity.Member;
+import study.KYHquerydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 리포지토리가 만드는 모든 검색 쿼리 모양(검색조건 16가지 x 구현별)에 H2 `EXPLAIN` 을 돌려서
+ * 인덱스를 타지 않고 테이블 전체를 읽는(tableScan) 쿼리가 있으면 실패한다.
+ * 검색조건이 하나도 없는 모양은 전체 조회이므로 제외한다.
+ */
+@SpringBootTest
+@Transactional
+class SearchQueryPlanTest {
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        SqlCapture sqlCapture() {
+            return new SqlCapture();
+        }
+    }
+
+    // p6spy 가 실행한 select 를 값이 바인딩된 SQL 로 모은다.
+    static class SqlCapture extends SimpleJdbcEventListener {
+        final List<String> sqls = new ArrayList<>();
+
+        @Override
+        public void onAfterExecuteQuery(PreparedStatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+            sqls.add(statementInformation.getSqlWithValues());
+        }
+    }
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    SqlCapture sqlCapture;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberSearchQueryTemplates queryTemplates;
+
+    @Test
+    public void noFullTableScan() throws Exception {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 0; i < 20; i++) {
+            em.persist(new Member("member" + i, i * 5, i % 2 == 0 ? teamA : teamB));
+        }
+        em.flush();
+
+        for (int shape = 1; shape < MemberSearchQueryTemplates.SHAPES; shape++) {
+            MemberSearchCondition condition = condition(shape);
+            sqlCapture.sqls.clear();
+
+            memberJpaRepository.search(condition);
+            memberJpaRepository.searchByBuilder(condition);
+            memberRepository.searchPageSimple(condition, PageRequest.of(0, 1));
+            memberRepository.searchPageComplex(condition, PageRequest.of(0, 1));
+            memberRepository.searchByCursor(condition, MemberCursor.first(MemberCursor.SortKey.ID), 1);
+            memberRepository.searchByCursor(condition, MemberCursor.first(MemberCursor.SortKey.AGE), 1);
+            queryTemplates.content(em, condition).getResultList();
+            queryTemplates.count(em, condition).getSingleResult();
+
+            List<String> sqls = new ArrayList<>(sqlCapture.sqls);
+            assertThat(sqls).isNotEmpty();
+            for (String sql : sqls) {
+                if (!sql.toLowerCase().contains("member")) {
+                    continue;  // 시퀀스 조회 등
+                }
+                String plan = String.valueOf(em.createNativeQuery("EXPLAIN " + sql).getSingleResult());
+                assertThat(plan)
+                        .as("shape=%d sql=%s", shape, sql)
+                        .doesNotContain("MEMBER.tableScan")
+                        .doesNotContain("TEAM.tableScan");
+            }
+        }
+    }
+
+    private MemberSearchCondition condition(int shape) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        if ((shape & MemberSearchQueryTemplates.USERNAME) != 0) condition.setUsername("member3");
+        if ((shape & MemberSearchQueryTemplates.TEAM_NAME) != 0) condition.setTeamName("teamB");
+        if ((shape & MemberSearchQueryTemplates.AGE_GOE) != 0) condition.setAgeGoe(20);
+        if ((shape & MemberSearchQueryTemplates.AGE_LOE) != 0) condition.setAgeLoe(60);
+        return condition;
+    }
+
+}
@@ -0,0 +1,93 @@
+package study.KYHquerydsl.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.KYHquerydsl.dto.TeamStatsDto;
+import study.KYHquerydsl.entity.Member;
+import study.KYHquerydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// TeamStatistics 는 커밋 후에 이벤트를 받으므로 테스트 데이터를 커밋해두고 끝나면 지운다. (@Transactional 롤백 사용 불가)
+@SpringBootTest
+class TeamStatisticsEventTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamStatistics teamStatistics;
+
+    @AfterEach
+    public void after() {
+        memberRepository.deleteAll();
+        transactionTemplate.executeWithoutResult(status ->
+                em.createQuery("select t from Team t", Team.class).getResultList().forEach(em::remove));
+    }
+
+    @Test
+    public void insertThenUpdateInOneTransaction() {
+        teamStatistics.findAll();  // 미리 읽어둬야 이벤트로 갱신된다.
+
+        Long teamId = transactionTemplate.execute(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            Member member = new Member("member1", 10, teamA);
+            em.persist(member);
+            em.flush();  // insert(10)
+            member.setAge(20);
+            em.flush();  // update(10 -> 20)
+            member.setAge(30);
+            return teamA.getId();  // 커밋 때 update(20 -> 30)
+        });
+
+        assertThat(stats(teamId))
+                .extracting("count", "ageSum", "ageMin", "ageMax")
+                .containsExactly(1L, 30L, 30, 30);
+    }
+
+    @Test
+    public void twoFlushedUpdatesInOneTransaction() {
+        Long[] ids = transactionTemplate.execute(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            Member member = new Member("member1", 10, teamA);
+            em.persist(member);
+            return new Long[]{teamA.getId(), teamB.getId(), member.getId()};
+        });
+        teamStatistics.findAll();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Member member = em.find(Member.class, ids[2]);
+            member.setAge(40);
+            em.flush();  // teamA: 10 -> 40
+            member.changeTeam(em.find(Team.class, ids[1]));
+            em.flush();  // teamA(40) -> teamB(40)
+        });
+
+        assertThat(stats(ids[0])).extracting("count", "ageSum").containsExactly(0L, 0L);
+        assertThat(stats(ids[1]))
+                .extracting("count", "ageSum", "ageMin", "ageMax")
+                .containsExactly(1L, 40L, 40, 40);
+    }
+
+    private TeamStatsDto stats(Long teamId) {
+        return teamStatistics.findAll().stream()
+                .filter(stats -> stats.getTeamId().equals(teamId))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,134 @@
+package study.KYHquerydsl.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import study.KYHquerydsl.entity.Member;
+import study.KYHquerydsl.entity.Team;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class TeamStatisticsTest {
+
+    // Member 의 (id 제외) 프로퍼티 이름. state 배열은 이 순서로 만든다.
+    static final String[] NAMES = {"age", "team", "username"};
+
+    TeamStatistics teamStatistics;
+    Team teamA;
+    Team teamB;
+
+    // `QuerydslBasicTest` 와 같은 데이터: teamA(10, 20), teamB(30, 40)
+    @BeforeEach
+    public void before() {
+        teamStatistics = new TeamStatistics(null, null, null);
+        teamStatistics.rebuild(
+                Arrays.asList(new Object[]{1L, "teamA"}, new Object[]{2L, "teamB"}).iterator(),
+                Arrays.asList(
+                        new Object[]{1L, 10, 1L},
+                        new Object[]{1L, 20, 1L},
+                        new Object[]{2L, 30, 1L},
+                        new Object[]{2L, 40, 1L}).iterator());
+
+        teamA = new Team("teamA");
+        teamA.setId(1L);
+        teamB = new Team("teamB");
+        teamB.setId(2L);
+    }
+
+    @Test
+    public void findAll() {
+        assertThat(teamStatistics.findAll())
+                .extracting("teamName", "count", "ageSum", "ageAvg", "ageMin", "ageMax")
+                .containsExactly(
+                        tuple("teamA", 2L, 30L, 15.0, 10, 20),
+                        tuple("teamB", 2L, 70L, 35.0, 30, 40));
+    }
+
+    @Test
+    public void appliesChanges() {
+        insert(new Member("member5", 50, teamA));
+
+        // changeTeam: teamB(40) -> teamA(40)
+        Member member4 = new Member("member4", 40, teamA);
+        teamStatistics.onUpdate(member4, new Object[]{40, teamB, "member4"}, state(member4), NAMES);
+
+        // 최소값이었던 회원 삭제
+        delete(new Member("member1", 10, teamA));
+
+        assertThat(teamStatistics.findAll())
+                .extracting("teamName", "count", "ageSum", "ageMin", "ageMax")
+                .containsExactly(
+                        tuple("teamA", 3L, 110L, 20, 50),
+                        tuple("teamB", 1L, 30L, 30, 30));
+    }
+
+    @Test
+    public void emptyTeam() {
+        delete(new Member("member3", 30, teamB));
+        delete(new Member("member4", 40, teamB));
+
+        assertThat(teamStatistics.findAll().get(1))
+                .extracting("teamName", "count", "ageAvg", "ageMin", "ageMax")
+                .containsExactly("teamB", 0L, null, null, null);
+    }
+
+    @Test
+    public void reconcile() {
+        assertThat(teamStatistics.reconcile(Arrays.asList(
+                new Object[]{1L, 2L, 30, 10, 20},
+                new Object[]{2L, 2L, 70, 30, 40}).iterator())).isZero();
+
+        assertThat(teamStatistics.reconcile(Collections.singletonList(
+                new Object[]{1L, 3L, 80, 10, 50}).iterator())).isEqualTo(2);  // teamA 값이 다르고, teamB 는 실제로는 비어 있음
+    }
+
+    @Test
+    public void replaysChangesDuringReload() {
+        assertThat(teamStatistics.beginReload()).isTrue();
+        insert(new Member("member5", 50, teamA));
+
+        // 다시 읽은 값(member5 커밋 전에 읽음)에도 member5 가 반영된다.
+        teamStatistics.rebuild(
+                Collections.singletonList(new Object[]{1L, "teamA"}).iterator(),
+                Collections.singletonList(new Object[]{1L, 10, 1L}).iterator());
+
+        assertThat(teamStatistics.findAll())
+                .extracting("teamName", "count", "ageSum", "ageMin", "ageMax")
+                .containsExactly(tuple("teamA", 2L, 60L, 10, 50));
+    }
+
+    @Test
+    public void recheckFixesChangeCountedTwiceDuringReload() {
+        assertThat(teamStatistics.beginReload()).isTrue();
+        insert(new Member("member5", 50, teamA));
+
+        // member5 가 다시 읽기 전에 커밋됐고 이벤트만 늦게 온 경우: 읽은 값과 다시 반영한 값에 두 번 들어간다.
+        Set<Long> replayed = teamStatistics.rebuild(
+                Collections.singletonList(new Object[]{1L, "teamA"}).iterator(),
+                Arrays.asList(new Object[]{1L, 10, 1L}, new Object[]{1L, 50, 1L}).iterator());
+        assertThat(replayed).containsExactly(1L);
+        assertThat(teamStatistics.findAll()).extracting("count").containsExactly(3L);
+
+        teamStatistics.replaceAges(replayed, Arrays.asList(new Object[]{1L, 10, 1L}, new Object[]{1L, 50, 1L}).iterator());
+
+        assertThat(teamStatistics.findAll())
+                .extracting("teamName", "count", "ageSum", "ageMin", "ageMax")
+                .containsExactly(tuple("teamA", 2L, 60L, 10, 50));
+    }
+
+    private void insert(Member member) {
+        teamStatistics.onInsert(member, state(member), NAMES);
+    }
+
+    private void delete(Member member) {
+        teamStatistics.onDelete(member, state(member), NAMES);
+    }
+
+    private static Object[] state(Member member) {
+        return new Object[]{member.getAge(), member.getTeam(), member.getUsername()};
+    }
+}
@@ -0,0 +1,31 @@
+package study.KYHquerydsl.support;
+
+import study.KYHquerydsl.jdbc.SqlStatementCounter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 블록 안에서 실행된 SQL statement 수 검증. (p6spy 로 JDBC 계층에서 센다)
+ * <pre>
+ * assertSqlCount(1, () -> memberRepository.search(condition));
+ * </pre>
+ */
+public final class SqlCountAssertions {
+
+    private SqlCountAssertions() {
+    }
+
+    public static long countSql(Runnable block) {
+        long before = SqlStatementCounter.current();
+        block.run();
+        return SqlStatementCounter.current() - before;
+    }
+
+    public static void assertSqlCount(long expected, Runnable block) {
+        assertThat(countSql(block)).as("실행된 SQL statement 수").isEqualTo(expected);
+    }
+
+    public static void assertMaxSqlCount(long max, Runnable block) {
+        assertThat(countSql(block)).as("실행된 SQL statement 수").isLessThanOrEqualTo(max);
+    }
+}